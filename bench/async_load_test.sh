@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+# Test de charge de l'exécution asynchrone des contrôleurs (web.async.mode)
+#
+# Usage : bench/async_load_test.sh [base_url] [email] [password]
+#
+# À lancer une fois par mode (sync, pool, virtual), l'application redémarrée avec le même -Xmx
+# et le même maxThreads Tomcat. Pour chaque niveau de concurrence : débit, latences et erreurs
+# (hey), puis l'état de l'exécuteur et du tas. En mode "sync", la concurrence plafonne au nombre
+# de threads du conteneur ; en mode asynchrone, elle n'est bornée que par le pool Hikari et la file.
+#
+# Prérequis : hey (https://github.com/rakyll/hey), curl, jq ; jcmd pour le tas (même machine).
+
+set -euo pipefail
+
+BASE_URL=${1:-http://localhost:8080}
+EMAIL=${2:-admin@example.com}
+PASSWORD=${3:-admin123}
+DURATION=${DURATION:-30s}
+LEVELS=${LEVELS:-"50 200 800 2000"}
+
+TOKEN=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"motDePasse\":\"$PASSWORD\"}" \
+    "$BASE_URL/api/auth/login" | jq -r '.data.token')
+
+PID=$(pgrep -f catalina | head -n1 || true)
+
+for concurrency in $LEVELS; do
+    echo "=== concurrency=$concurrency ==="
+    hey -z "$DURATION" -c "$concurrency" -H "Authorization: Bearer $TOKEN" \
+        "$BASE_URL/api/users/paginated?mode=slice&size=50" \
+        | grep -E 'Requests/sec|Average|99%|Status code|\[[0-9]{3}\]'
+
+    curl -sf "$BASE_URL/api/metrics/async" | jq -c '.data'
+    if [ -n "$PID" ]; then
+        jcmd "$PID" GC.heap_info | grep -E 'garbage-first heap|total'
+    fi
+done
@@ -0,0 +1,145 @@
+-- Vérifie que chaque requête de UserRepository dispose d'un index (migrations db/migration)
+--
+-- Usage : psql -U myuser -d mydb -f bench/explain_indexes.sql
+-- Les mêmes contrôles tournent dans mvn test (UserRepositoryIndexTest, PostgreSQL Testcontainers) ;
+-- ce script sert à les rejouer sur une base réelle.
+--
+-- Copie la structure de public.users (index compris, donc migrations déjà appliquées par
+-- l'application) dans un schéma "bench" jetable, la remplit avec 200k lignes puis exécute
+-- EXPLAIN sur le SQL émis pour chaque méthode. Le parcours séquentiel est désactivé : s'il
+-- apparaît quand même dans le plan, aucun index ne peut servir la requête et le script échoue.
+-- Pour les lectures triées, le plan ne doit pas non plus contenir de tri explicite (Sort).
+-- Les pages par clé comparent des lignes ((clé, id) > (...)) : une seule plage d'index, lue à
+-- partir de la clé, sans filtrer les lignes des pages précédentes.
+--
+-- Note : findAllActive lit presque toute la table ; avec les réglages par défaut PostgreSQL
+-- préfère alors légitimement un Seq Scan. Le contrôle porte sur l'existence d'un index utilisable.
+-- findResponsesByRole (tous les utilisateurs d'un rôle parmi deux) n'a volontairement pas d'index :
+-- le parcours séquentiel est le bon plan, il n'est donc pas contrôlé ici.
+--
+-- Index utilisés : users_pkey (findActiveById, lectures actives triées sur id), users_email_key
+-- (email), idx_users_active_{nom,email,role,created_at}_id (pages par clé), idx_users_*_trgm
+-- (searchRanked), idx_users_deleted_at_id (purge par lots).
+
+\set ON_ERROR_STOP on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+CREATE TABLE bench.users (LIKE public.users INCLUDING ALL);
+SET search_path = bench, public;
+
+INSERT INTO bench.users (id, nom, email, mot_de_passe, role, actif, created_at, updated_at, deleted_at)
+SELECT g,
+       'user ' || md5(g::text),
+       'user' || g || '@example.com',
+       'x',
+       CASE WHEN g % 10 = 0 THEN 'ADMIN' ELSE 'USER' END,
+       true,
+       now() - (g || ' seconds')::interval,
+       now(),
+       CASE WHEN g % 20 = 0 THEN now() END
+FROM generate_series(1, 200000) g;
+ANALYZE bench.users;
+
+CREATE FUNCTION bench.check_plan(label text, query text, forbidden text[]) RETURNS text AS $$
+DECLARE
+    plan text;
+    node text;
+BEGIN
+    SET LOCAL enable_seqscan = off;
+    EXECUTE 'EXPLAIN (FORMAT JSON) ' || query INTO plan;
+    FOREACH node IN ARRAY forbidden LOOP
+        IF plan LIKE '%"Node Type": "' || node || '"%' THEN
+            RAISE EXCEPTION '% : plan contains "%"%', label, node, E'\n' || plan;
+        END IF;
+    END LOOP;
+    RETURN label || ' : OK';
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT bench.check_plan('findByEmail / existsByEmail',
+    $q$SELECT * FROM users u WHERE u.email = 'user42@example.com'$q$,
+    ARRAY['Seq Scan']);
+
+SELECT bench.check_plan('findExistingEmails',
+    $q$SELECT u.email FROM users u WHERE u.email IN ('user1@example.com', 'user2@example.com')$q$,
+    ARRAY['Seq Scan']);
+
+SELECT bench.check_plan('findActiveById',
+    $q$SELECT * FROM users u WHERE u.id = 42 AND u.deleted_at IS NULL$q$,
+    ARRAY['Seq Scan']);
+
+SELECT bench.check_plan('findAllActive',
+    $q$SELECT * FROM users u WHERE u.deleted_at IS NULL$q$,
+    ARRAY['Seq Scan']);
+
+SELECT bench.check_plan('streamAllActive',
+    $q$SELECT * FROM users u WHERE u.deleted_at IS NULL ORDER BY u.id$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveFirstPage (nom, id)',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL
+       ORDER BY u.nom, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveAfterId',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND u.id > 1000
+       ORDER BY u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveBeforeId',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND u.id < 1000
+       ORDER BY u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveAfterNom',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND (u.nom, u.id) > ('user 5', 1000)
+       ORDER BY u.nom, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveBeforeNom',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND (u.nom, u.id) < ('user 5', 1000)
+       ORDER BY u.nom DESC, u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveAfterEmail',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND (u.email, u.id) > ('user5', 1000)
+       ORDER BY u.email, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveBeforeEmail',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND (u.email, u.id) < ('user5', 1000)
+       ORDER BY u.email DESC, u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveAfterCreatedAt',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND (u.created_at, u.id) > (now() - interval '1 day', 1000)
+       ORDER BY u.created_at, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveBeforeCreatedAt',
+    $q$SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND (u.created_at, u.id) < (now() - interval '1 day', 1000)
+       ORDER BY u.created_at DESC, u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveIdsAfterRole',
+    $q$SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.role, u.id) > ('ADMIN', 1000)
+       ORDER BY u.role ASC, u.id ASC LIMIT 21$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('findActiveIdsBeforeRole',
+    $q$SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.role, u.id) < ('USER', 1000)
+       ORDER BY u.role DESC, u.id DESC LIMIT 21$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('deleteDeletedBatch / archiveDeletedBatch (lot)',
+    $q$SELECT id FROM users WHERE deleted_at IS NOT NULL AND deleted_at < now()
+       AND (deleted_at, id) > (timestamp '1970-01-01', 0)
+       ORDER BY deleted_at, id LIMIT 1000 FOR UPDATE SKIP LOCKED$q$,
+    ARRAY['Seq Scan', 'Sort']);
+
+SELECT bench.check_plan('searchRanked',
+    $q$SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.nom ILIKE '%a1b2c%' OR u.email ILIKE '%a1b2c%')$q$,
+    ARRAY['Seq Scan']);
+
+DROP SCHEMA bench CASCADE;
@@ -0,0 +1,75 @@
+-- Benchmark de la recherche par trigrammes (UserRepository.searchRanked)
+--
+-- Usage : psql -U myuser -d mydb -f bench/search_benchmark.sql
+--
+-- Travaille dans un schéma "bench" jetable (copie de la structure de public.users,
+-- index compris) et mesure la requête à 10k, 100k puis 1M lignes. Le temps
+-- d'exécution doit rester quasi constant alors que la table est multipliée par 100 ;
+-- l'ancienne requête (lower(nom) LIKE '%x%') est mesurée à titre de comparaison.
+
+\timing on
+\set ON_ERROR_STOP on
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+CREATE TABLE bench.users (LIKE public.users INCLUDING ALL);
+SET search_path = bench, public;
+
+CREATE OR REPLACE FUNCTION bench.fill_users(from_id bigint, to_id bigint) RETURNS void AS $$
+    INSERT INTO bench.users (id, nom, email, mot_de_passe, role, actif, created_at, updated_at, deleted_at)
+    SELECT g,
+           'user ' || md5(g::text),
+           'user' || g || '@example.com',
+           'x',
+           CASE WHEN g % 10 = 0 THEN 'ADMIN' ELSE 'USER' END,
+           true,
+           now(),
+           now(),
+           CASE WHEN g % 20 = 0 THEN now() END
+    FROM generate_series(from_id, to_id) g;
+$$ LANGUAGE sql;
+
+-- ---------- 10 000 lignes ----------
+SELECT bench.fill_users(1, 10000);
+ANALYZE bench.users;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.id, GREATEST(similarity(u.nom, 'a1b2c'), similarity(u.email, 'a1b2c')) AS score
+FROM users u
+WHERE u.deleted_at IS NULL AND (u.nom ILIKE '%a1b2c%' OR u.email ILIKE '%a1b2c%')
+ORDER BY score DESC, u.id ASC
+LIMIT 21;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users u WHERE lower(u.nom) LIKE '%a1b2c%';
+
+-- ---------- 100 000 lignes ----------
+SELECT bench.fill_users(10001, 100000);
+ANALYZE bench.users;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.id, GREATEST(similarity(u.nom, 'a1b2c'), similarity(u.email, 'a1b2c')) AS score
+FROM users u
+WHERE u.deleted_at IS NULL AND (u.nom ILIKE '%a1b2c%' OR u.email ILIKE '%a1b2c%')
+ORDER BY score DESC, u.id ASC
+LIMIT 21;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users u WHERE lower(u.nom) LIKE '%a1b2c%';
+
+-- ---------- 1 000 000 lignes ----------
+SELECT bench.fill_users(100001, 1000000);
+ANALYZE bench.users;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT u.id, GREATEST(similarity(u.nom, 'a1b2c'), similarity(u.email, 'a1b2c')) AS score
+FROM users u
+WHERE u.deleted_at IS NULL AND (u.nom ILIKE '%a1b2c%' OR u.email ILIKE '%a1b2c%')
+ORDER BY score DESC, u.id ASC
+LIMIT 21;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM users u WHERE lower(u.nom) LIKE '%a1b2c%';
+
+RESET search_path;
+DROP SCHEMA bench CASCADE;
@@ -0,0 +1,42 @@
+package org.example.benchmark;
+
+import org.example.dto.UserRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.model.User;
+import org.example.model.enums.Role;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    public static List<User> users(int count) {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 15, 10, 30, 0);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User("Utilisateur " + i, "user" + i + "@example.com",
+                    "$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0", i % 10 == 0 ? Role.ADMIN : Role.USER);
+            user.setId((long) i + 1);
+            user.setCreatedAt(now.minusDays(i % 365));
+            user.setUpdatedAt(now);
+            users.add(user);
+        }
+        return users;
+    }
+
+    public static List<UserResponseDTO> responses(int count) {
+        List<UserResponseDTO> responses = new ArrayList<>(count);
+        for (User user : users(count)) {
+            responses.add(UserResponseDTO.fromEntity(user));
+        }
+        return responses;
+    }
+
+    public static UserRequestDTO validRequest() {
+        return new UserRequestDTO("Jean Dupont", "jean.dupont+test@example-mail.com", "secret123", Role.USER, true);
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.benchmark;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.config.WebConfig;
+import org.example.dto.ApiResponse;
+import org.example.web.CompressionFilter;
+import org.example.web.DeflaterPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coût CPU de la compression de GET /api/users selon la taille de la liste.
+ *
+ * "identity" : corps non compressé, "pooledGzip" : CompressionFilter (Deflater réutilisé),
+ * "newGzipStream" : un GZIPOutputStream (et son Deflater natif) créé par réponse.
+ * Le corps JSON est sérialisé une fois au setUp ; les tailles sur le fil sont affichées à ce moment-là.
+ * La réponse ne fait que compter les octets (MockHttpServletResponse les recopie un par un).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final int LEVEL = 5;
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private byte[] body;
+    private CompressionFilter filter;
+    private HttpServlet servlet;
+
+    @Setup
+    public void setUp() throws Exception {
+        body = new WebConfig().objectMapper()
+                .writeValueAsBytes(new ApiResponse.CountedList<>(BenchmarkData.responses(size)));
+        filter = new CompressionFilter(true, new DeflaterPool(4, LEVEL, 2048),
+                List.of(MediaType.APPLICATION_JSON));
+        servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getOutputStream().write(body);
+            }
+        };
+
+        System.out.printf("%nsize=%d json=%d B pooledGzip=%d B%n", size, body.length, pooledGzip());
+    }
+
+    @Benchmark
+    public long identity() throws Exception {
+        return handle(null);
+    }
+
+    @Benchmark
+    public long pooledGzip() throws Exception {
+        return handle("gzip, deflate, br");
+    }
+
+    @Benchmark
+    public byte[] newGzipStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(LEVEL);
+            }
+        };
+        gzip.write(body);
+        gzip.close();
+        return out.toByteArray();
+    }
+
+    // Renvoie le nombre d'octets écrits sur le fil
+    private long handle(String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        CountingResponse response = new CountingResponse();
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response.written;
+    }
+
+    private static final class CountingResponse extends MockHttpServletResponse {
+
+        private long written;
+
+        private final ServletOutputStream out = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.example.config.WebConfig;
+import org.example.dto.ApiResponse;
+import org.example.dto.UserResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation des enveloppes de GET /api/users (liste) et GET /api/users/{id}.
+ *
+ * "map*" reproduit l'ancien chemin (HashMap + ObjectMapper par défaut, dates via @JsonFormat), "typed*" le chemin actuel
+ * (ApiResponse + ObjectMapper de WebConfig). Les réponses sont écrites dans un flux comme le fait
+ * le convertisseur HTTP. Allocation par réponse : -Djmh.args="ResponseSerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper defaultMapper;
+    private ObjectMapper objectMapper;
+    private List<UserResponseDTO> users;
+    private OutputStream out;
+
+    @Setup
+    public void setUp() {
+        defaultMapper = new ObjectMapper();
+        defaultMapper.registerModule(new JavaTimeModule());
+        defaultMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        defaultMapper.addMixIn(UserResponseDTO.class, FormattedDates.class);
+
+        objectMapper = new WebConfig().objectMapper();
+        users = BenchmarkData.responses(size);
+        // Flux qui ignore les octets et supporte close() (writeValue ferme sa cible)
+        out = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+    }
+
+    @Benchmark
+    public void mapListEnvelope() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("count", users.size());
+        response.put("data", users);
+        defaultMapper.writeValue(out, response);
+    }
+
+    @Benchmark
+    public void typedListEnvelope() throws Exception {
+        objectMapper.writeValue(out, new ApiResponse.CountedList<>(users));
+    }
+
+    @Benchmark
+    public void mapSingleEnvelope() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", users.get(0));
+        defaultMapper.writeValue(out, response);
+    }
+
+    @Benchmark
+    public void typedSingleEnvelope() throws Exception {
+        objectMapper.writeValue(out, new ApiResponse.Data<>(users.get(0)));
+    }
+
+    // Dates formatées par DateTimeFormatter, comme avant LocalDateTimeSecondsSerializer
+    abstract static class FormattedDates {
+
+        @JsonSerialize(using = JsonSerializer.None.class)
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime createdAt;
+
+        @JsonSerialize(using = JsonSerializer.None.class)
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        private LocalDateTime updatedAt;
+    }
+}
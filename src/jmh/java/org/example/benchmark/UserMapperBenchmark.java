@@ -0,0 +1,43 @@
+package org.example.benchmark;
+
+import org.example.dto.UserResponseDTO;
+import org.example.mapper.UserMapper;
+import org.example.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkData.users(size);
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> toResponseList() {
+        return UserMapper.toResponseList(users);
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.dto.UserResponseDTO;
+import org.example.mapper.UserMapper;
+import org.example.model.User;
+import org.example.repository.UserRepository;
+import org.hibernate.jpa.HibernateHints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Lecture de la liste des utilisateurs actifs : entités gérées + UserMapper contre projection
+ * UserResponseDTO (UserRepository.SELECT_RESPONSE), sur une base H2 en mémoire.
+ *
+ * L'écart d'allocation se lit avec le profileur GC :
+ * mvn -Pbenchmark verify -Djmh.args="UserQueryBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserQueryBenchmark {
+
+    private static final String ACTIVE_ENTITIES = "SELECT u FROM User u WHERE u.deletedAt IS NULL";
+    private static final String ACTIVE_RESPONSES = UserRepository.SELECT_RESPONSE + "WHERE u.deletedAt IS NULL";
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private LocalContainerEntityManagerFactoryBean factoryBean;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:users-" + size + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+        Properties properties = new Properties();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.jdbc.batch_size", "50");
+
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("org.example.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        inTransaction(entityManager -> {
+            List<User> users = BenchmarkData.users(size);
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                user.setId(null);
+                entityManager.persist(user);
+                if (i % 50 == 49) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return null;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        factoryBean.destroy();
+    }
+
+    // Chemin d'origine : entités gérées (instantanés pour le dirty checking, flush au commit)
+    @Benchmark
+    public List<UserResponseDTO> managedEntities() {
+        return inTransaction(entityManager -> UserMapper.toResponseList(
+                entityManager.createQuery(ACTIVE_ENTITIES, User.class).getResultList()));
+    }
+
+    // Entités en lecture seule : plus d'instantané, mais toujours toutes les colonnes et une entité par ligne
+    @Benchmark
+    public List<UserResponseDTO> readOnlyEntities() {
+        return inTransaction(entityManager -> UserMapper.toResponseList(
+                entityManager.createQuery(ACTIVE_ENTITIES, User.class)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true)
+                        .getResultList()));
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> dtoProjection() {
+        return inTransaction(entityManager -> entityManager
+                .createQuery(ACTIVE_RESPONSES, UserResponseDTO.class)
+                .getResultList());
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
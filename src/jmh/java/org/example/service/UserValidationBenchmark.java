@@ -0,0 +1,54 @@
+package org.example.service;
+
+import org.example.benchmark.BenchmarkData;
+import org.example.dto.UserRequestDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Règles de createUser (dont EMAIL_PATTERN), sur une requête valide et une adresse invalide longue
+ * (pire cas de backtracking de l'expression régulière).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserValidationBenchmark {
+
+    private UserRequestDTO valid;
+    private UserRequestDTO invalidEmail;
+
+    @Setup
+    public void setUp() {
+        valid = BenchmarkData.validRequest();
+        invalidEmail = BenchmarkData.validRequest();
+        invalidEmail.setEmail("a".repeat(64) + "@" + "b.".repeat(60) + "c");
+    }
+
+    @Benchmark
+    public void validRequest() {
+        UserService.validateForCreate(valid);
+    }
+
+    @Benchmark
+    public void invalidEmail(Blackhole blackhole) {
+        try {
+            UserService.validateForCreate(invalidEmail);
+        } catch (IllegalArgumentException e) {
+            blackhole.consume(e);
+        }
+    }
+}
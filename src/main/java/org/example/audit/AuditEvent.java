@@ -0,0 +1,15 @@
+package org.example.audit;
+
+import org.example.model.enums.AuditAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement en attente d'écriture dans audit_log.
+ *
+ * @param actorId  utilisateur à l'origine de l'action, null si anonyme
+ * @param targetId utilisateur concerné, null si sans objet
+ */
+public record AuditEvent(LocalDateTime occurredAt, AuditAction action, Long actorId, Long targetId,
+                         String clientIp, String details) {
+}
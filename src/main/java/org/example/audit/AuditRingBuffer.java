@@ -0,0 +1,82 @@
+package org.example.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * File bornée sans verrou, plusieurs producteurs et un seul consommateur (file de Vyukov).
+ *
+ * Chaque case porte un numéro de séquence : égal à la position d'écriture quand elle est libre, à la
+ * position + 1 une fois remplie. Un producteur réserve une position par CAS sur tail puis publie la case
+ * en avançant sa séquence ; le consommateur la libère pour le tour suivant (position + capacité).
+ */
+final class AuditRingBuffer {
+
+    private final int mask;
+    private final AtomicReferenceArray<AuditEvent> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false si la file est pleine
+     */
+    boolean offer(AuditEvent event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (delta < 0) {
+                return false;
+            }
+            // delta > 0 : un autre producteur a pris cette position, on relit tail
+        }
+    }
+
+    /**
+     * Retire au plus max événements (consommateur unique).
+     */
+    int drainTo(List<AuditEvent> target, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(events.get(index));
+            events.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head.lazySet(position);
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,269 @@
+package org.example.audit;
+
+import org.example.metrics.LatencyHistogram;
+import org.example.model.enums.AuditAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal d'audit asynchrone : record() dépose l'événement dans une file bornée sans verrou, un thread
+ * dédié l'écrit dans audit_log par INSERT JDBC regroupés (audit.flush-size lignes, ou ce qui est en
+ * attente depuis audit.flush-interval-ms). La requête ne paie ni aller-retour ni connexion.
+ *
+ * Dans une transaction, l'événement n'est déposé qu'après le commit : une action annulée n'est pas
+ * journalisée. File pleine : "drop" abandonne l'événement, "block" attend au plus audit.block-timeout-ms
+ * avant de l'abandonner. Les abandons sont comptés (/api/metrics/audit).
+ *
+ * À l'arrêt, la file est vidée en base avant la fermeture du pool (audit.shutdown-timeout-ms au plus).
+ * Un arrêt brutal de la JVM perd les événements non encore écrits.
+ */
+public class AuditTrail {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+    public enum Backpressure { DROP, BLOCK }
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log " +
+            "(occurred_at, action, actor_id, target_id, client_ip, details) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_DETAILS_LENGTH = 500;
+    private static final long MAX_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer buffer;
+    private final boolean enabled;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final Backpressure backpressure;
+    private final long blockTimeoutNanos;
+    private final long shutdownTimeoutMs;
+
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final AtomicInteger enqueuing = new AtomicInteger();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LatencyHistogram flushDuration = new LatencyHistogram();
+
+    public AuditTrail(DataSource dataSource, boolean enabled, int capacity, int flushSize, long flushIntervalMs,
+                      String backpressure, long blockTimeoutMs, long shutdownTimeoutMs) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.buffer = new AuditRingBuffer(capacity);
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.backpressure = Backpressure.valueOf(backpressure.trim().toUpperCase(Locale.ROOT));
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    public void record(AuditAction action, Long actorId, Long targetId, String clientIp, String details) {
+        if (!enabled) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(LocalDateTime.now(), action, actorId, targetId, clientIp, details);
+
+        if (TransactionSynchronizationManager.isActualTransactionActive() &&
+                TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("backpressure", backpressure.name().toLowerCase(Locale.ROOT));
+        stats.put("capacity", buffer.capacity());
+        stats.put("queueDepth", buffer.size());
+        stats.put("recorded", recorded.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("blocked", blocked.sum());
+        stats.put("batches", batches.sum());
+        stats.put("writeFailures", writeFailures.sum());
+        stats.put("lost", lost.sum());
+        stats.put("flushDuration", flushDuration.toMap());
+        return stats;
+    }
+
+    /**
+     * Arrête le thread d'écriture après avoir vidé la file (appelé à la fermeture du contexte).
+     */
+    public void shutdown() {
+        running = false;
+        if (!writer.isAlive()) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Audit writer did not drain within {} ms, {} events left in the queue",
+                    shutdownTimeoutMs, buffer.size());
+        }
+    }
+
+    // enqueuing compte les dépôts en cours : le thread d'écriture ne s'arrête qu'une fois ceux commencés
+    // avant l'arrêt terminés, un événement accepté n'est donc jamais laissé dans la file
+    private void enqueue(AuditEvent event) {
+        enqueuing.incrementAndGet();
+        try {
+            if (!running) {
+                dropped.increment();
+                return;
+            }
+            if (offer(event)) {
+                if (buffer.size() >= flushSize) {
+                    LockSupport.unpark(writer);
+                }
+                return;
+            }
+            if (backpressure == Backpressure.BLOCK) {
+                blocked.increment();
+                LockSupport.unpark(writer);
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() < deadline) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    if (offer(event)) {
+                        return;
+                    }
+                }
+            }
+            dropped.increment();
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+    }
+
+    private boolean offer(AuditEvent event) {
+        if (buffer.offer(event)) {
+            recorded.increment();
+            return true;
+        }
+        return false;
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(flushSize);
+        long oldestPendingAt = 0;
+        long retryDelayNanos = flushIntervalNanos;
+
+        while (true) {
+            boolean stopping = !running;
+            // Après l'arrêt aucun dépôt ne commence plus : sans dépôt en cours, ce passage voit tout ce qui reste
+            boolean lastPass = stopping && enqueuing.get() == 0;
+            boolean wasEmpty = batch.isEmpty();
+            buffer.drainTo(batch, flushSize - batch.size());
+            if (wasEmpty && !batch.isEmpty()) {
+                oldestPendingAt = System.nanoTime();
+            }
+
+            if (batch.isEmpty()) {
+                if (lastPass) {
+                    return;
+                }
+                LockSupport.parkNanos(stopping ? TimeUnit.MICROSECONDS.toNanos(100) : flushIntervalNanos);
+                continue;
+            }
+
+            long waited = System.nanoTime() - oldestPendingAt;
+            if (batch.size() < flushSize && waited < flushIntervalNanos && !stopping) {
+                LockSupport.parkNanos(flushIntervalNanos - waited);
+                continue;
+            }
+
+            if (flush(batch)) {
+                batch.clear();
+                retryDelayNanos = flushIntervalNanos;
+            } else if (stopping) {
+                lost.add(batch.size());
+                log.error("Audit writer stopping, {} events could not be written", batch.size());
+                batch.clear();
+            } else {
+                // Base indisponible : le lot est conservé, la file se remplit et la politique de saturation s'applique
+                LockSupport.parkNanos(retryDelayNanos);
+                retryDelayNanos = Math.min(retryDelayNanos * 2, MAX_RETRY_DELAY_NANOS);
+            }
+        }
+    }
+
+    private boolean flush(List<AuditEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    AuditEvent event = batch.get(i);
+                    ps.setTimestamp(1, Timestamp.valueOf(event.occurredAt()));
+                    ps.setString(2, event.action().name());
+                    ps.setObject(3, event.actorId(), Types.BIGINT);
+                    ps.setObject(4, event.targetId(), Types.BIGINT);
+                    ps.setString(5, event.clientIp());
+                    ps.setString(6, truncate(event.details()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            written.add(batch.size());
+            batches.increment();
+            return true;
+        } catch (RuntimeException e) {
+            writeFailures.increment();
+            log.warn("Audit batch of {} events failed, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        } finally {
+            flushDuration.record(System.nanoTime() - start);
+        }
+    }
+
+    private static String truncate(String details) {
+        return details == null || details.length() <= MAX_DETAILS_LENGTH
+                ? details
+                : details.substring(0, MAX_DETAILS_LENGTH);
+    }
+}
@@ -1,13 +1,71 @@
 package org.example.config;
 
+import org.example.audit.AuditTrail;
+import org.example.web.CompressionFilter;
+import org.example.web.DeflaterPool;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
 
 @Configuration
 @ComponentScan(basePackages = {
         "org.example.service",
         "org.example.repository"
 })
+@PropertySource("classpath:application.properties")
+@EnableScheduling
 public class AppConfig {
     // Root application context
-}
\ No newline at end of file
+
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
+
+    // Tâches @Scheduled : la purge (longue) ne retarde ni la réconciliation des statistiques, ni la
+    // vérification des réplicas, ni le rechargement des jetons révoqués
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadNamePrefix("scheduler-");
+        return scheduler;
+    }
+
+    // Dépend de la DataSource : arrêté (file vidée en base) avant la fermeture du pool
+    @Bean(destroyMethod = "shutdown")
+    @DependsOn("flyway")
+    public AuditTrail auditTrail(@Qualifier("primaryDataSource") DataSource dataSource,
+                                 @Value("${audit.enabled:true}") boolean enabled,
+                                 @Value("${audit.buffer-capacity:8192}") int capacity,
+                                 @Value("${audit.flush-size:500}") int flushSize,
+                                 @Value("${audit.flush-interval-ms:1000}") long flushIntervalMs,
+                                 @Value("${audit.backpressure:block}") String backpressure,
+                                 @Value("${audit.block-timeout-ms:100}") long blockTimeoutMs,
+                                 @Value("${audit.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        return new AuditTrail(dataSource, enabled, capacity, flushSize, flushIntervalMs, backpressure,
+                blockTimeoutMs, shutdownTimeoutMs);
+    }
+
+    // Enregistré auprès du conteneur par WebInitializer (DelegatingFilterProxy "compressionFilter")
+    @Bean
+    public CompressionFilter compressionFilter(@Value("${compression.enabled:true}") boolean enabled,
+                                               @Value("${compression.min-size-bytes:2048}") int minSize,
+                                               @Value("${compression.level:5}") int level,
+                                               @Value("${compression.pool-size:32}") int poolSize,
+                                               @Value("${compression.mime-types:application/json,application/x-ndjson,text/plain}")
+                                               String mimeTypes) {
+        return new CompressionFilter(enabled, new DeflaterPool(poolSize, level, minSize),
+                MediaType.parseMediaTypes(mimeTypes));
+    }
+}
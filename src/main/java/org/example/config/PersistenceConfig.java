@@ -1,9 +1,20 @@
 package org.example.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.example.metrics.PoolMetricsTrackerFactory;
+import org.example.metrics.QueryMetrics;
+import org.example.metrics.QueryTimingDataSource;
+import org.example.persistence.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -11,6 +22,9 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 @Configuration
@@ -18,17 +32,106 @@ import java.util.Properties;
 @EnableJpaRepositories(basePackages = "org.example.repository")
 public class PersistenceConfig {
 
+    @Autowired
+    private Environment env;
+
+    @Bean
+    public PoolMetricsTrackerFactory poolMetricsTrackerFactory() {
+        return new PoolMetricsTrackerFactory();
+    }
+
     @Bean
+    public QueryMetrics queryMetrics() {
+        return new QueryMetrics(
+                env.getProperty("db.query.slow-threshold-ms", Long.class, 200L),
+                env.getProperty("db.query.max-shapes", Integer.class, 500)
+        );
+    }
+
+    @Bean
+    public DataSource primaryDataSource() {
+        HikariConfig config = poolConfig("primary", env.getProperty("db.url", "jdbc:postgresql://localhost:5432/mydb"),
+                env.getProperty("db.username", "myuser"), env.getProperty("db.password", "mypassword"));
+        config.setMinimumIdle(env.getProperty("db.pool.minimum-idle", Integer.class, 5));
+        config.setMaximumPoolSize(env.getProperty("db.pool.maximum-size", Integer.class, 20));
+
+        return new QueryTimingDataSource(new HikariDataSource(config), queryMetrics());
+    }
+
+    // Un pool par réplica (db.replicas.urls), identifiants du primaire par défaut. Un réplica injoignable
+    // au démarrage ne bloque pas l'application : il reste hors rotation jusqu'à ce qu'il réponde.
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource routingDataSource() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        String urls = env.getProperty("db.replicas.urls", "");
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariConfig config = poolConfig(name, url.trim(),
+                    env.getProperty("db.replicas.username", env.getProperty("db.username", "myuser")),
+                    env.getProperty("db.replicas.password", env.getProperty("db.password", "mypassword")));
+            config.setMinimumIdle(env.getProperty("db.replicas.pool.minimum-idle", Integer.class, 5));
+            config.setMaximumPoolSize(env.getProperty("db.replicas.pool.maximum-size", Integer.class, 20));
+            config.setConnectionTimeout(env.getProperty("db.replicas.pool.connection-timeout-ms", Long.class, 1000L));
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            replicas.put(name, new QueryTimingDataSource(new HikariDataSource(config), queryMetrics()));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource(), replicas,
+                env.getProperty("db.replicas.max-lag-ms", Long.class, 1000L));
+    }
+
+    // DataSource de JPA : la connexion réelle n'est choisie (primaire ou réplica) qu'à la première requête SQL,
+    // quand TransactionSynchronizationManager connaît le caractère read-only de la transaction
+    @Bean
+    @Primary
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl("jdbc:postgresql://localhost:5432/mydb");
-        dataSource.setUsername("myuser");
-        dataSource.setPassword("mypassword");
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource());
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
         return dataSource;
     }
 
+    private HikariConfig poolConfig(String poolName, String jdbcUrl, String username, String password) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+
+        config.setConnectionTimeout(env.getProperty("db.pool.connection-timeout-ms", Long.class, 3000L));
+        config.setIdleTimeout(env.getProperty("db.pool.idle-timeout-ms", Long.class, 600000L));
+        config.setMaxLifetime(env.getProperty("db.pool.max-lifetime-ms", Long.class, 1800000L));
+        config.setKeepaliveTime(env.getProperty("db.pool.keepalive-time-ms", Long.class, 300000L));
+        config.setLeakDetectionThreshold(env.getProperty("db.pool.leak-detection-threshold-ms", Long.class, 0L));
+
+        // Validation via Connection.isValid() (JDBC4) avant de rendre une connexion inactive
+        config.setValidationTimeout(env.getProperty("db.pool.validation-timeout-ms", Long.class, 2000L));
+
+        // Réécrit les INSERT batchés en INSERT multi-lignes côté driver
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
+
+        config.setMetricsTrackerFactory(poolMetricsTrackerFactory());
+        return config;
+    }
+
+    // Migrations db/migration appliquées au démarrage, avant la création de l'EntityManagerFactory.
+    // Une base existante sans historique Flyway est marquée en version 1 (schéma initial).
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(primaryDataSource())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
     @Bean
+    @DependsOn("flyway")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource());
@@ -51,9 +154,17 @@ public class PersistenceConfig {
     private Properties hibernateProperties() {
         Properties properties = new Properties();
         properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
-        properties.put("hibernate.show_sql", "true");
-        properties.put("hibernate.format_sql", "true");
-        properties.put("hibernate.hbm2ddl.auto", "update");
+        // Statistiques agrégées (/api/metrics/hibernate), sans le journal "Session Metrics" par session
+        properties.put("hibernate.generate_statistics", "true");
+        properties.put("hibernate.session.events.log", "false");
+        // Le schéma est géré par Flyway : aucune introspection des métadonnées au démarrage
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        properties.put("hibernate.jdbc.batch_size", "50");
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
+        // IN (:ids) complété à la puissance de 2 supérieure : peu de formes SQL distinctes quelle que soit
+        // la taille de la liste (cache de plans Hibernate, requêtes préparées, db.query.max-shapes)
+        properties.put("hibernate.query.in_clause_parameter_padding", "true");
         return properties;
     }
 }
\ No newline at end of file
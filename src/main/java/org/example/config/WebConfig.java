@@ -1,15 +1,36 @@
 package org.example.config;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.example.dto.ApiResponse;
+import org.example.dto.BulkUserResultDTO;
+import org.example.dto.CurrentUserDTO;
+import org.example.dto.LoginResponseDTO;
+import org.example.dto.SessionInfoDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.dto.UserStatsDTO;
+import org.example.metrics.RequestMetricsInterceptor;
+import org.example.metrics.RequestMetricsRegistry;
+import org.example.web.HandlerExecutor;
+import org.example.web.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Configuration
@@ -17,13 +38,87 @@ import java.util.List;
 @ComponentScan(basePackages = {"org.example.controller"})
 public class WebConfig implements WebMvcConfigurer {
 
-    @Override
-    public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        ObjectMapper objectMapper = new ObjectMapper();
+    @Value("${web.async.mode:sync}")
+    private String asyncMode;
+
+    @Value("${web.async.pool-size:200}")
+    private int asyncPoolSize;
+
+    @Value("${web.async.queue-capacity:1000}")
+    private int asyncQueueCapacity;
+
+    @Value("${web.async.timeout-ms:30000}")
+    private long asyncTimeoutMs;
+
+    @Value("${db.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${db.replicas.pin-after-write-ms:5000}")
+    private long pinAfterWriteMs;
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        // Tampons de génération recyclés dans un pool partagé (indépendant du thread qui écrit la réponse)
+        JsonFactory jsonFactory = JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.sharedConcurrentDequePool())
+                .build();
+
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory);
         objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.registerModule(new BlackbirdModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // Résout et met en cache les sérialiseurs au démarrage plutôt qu'à la première requête
+        for (Class<?> type : ApiResponse.class.getPermittedSubclasses()) {
+            objectMapper.canSerialize(type);
+        }
+        for (Class<?> type : List.of(UserResponseDTO.class, BulkUserResultDTO.class, CurrentUserDTO.class,
+                LoginResponseDTO.class, SessionInfoDTO.class, UserStatsDTO.class)) {
+            objectMapper.canSerialize(type);
+        }
+        return objectMapper;
+    }
+
+    @Bean
+    public RequestMetricsRegistry requestMetricsRegistry() {
+        return new RequestMetricsRegistry();
+    }
+
+    // Sans réplica, toutes les lectures vont au primaire : pas de cookie d'épinglage
+    @Bean
+    public ReadYourWrites readYourWrites() {
+        return new ReadYourWrites(!replicaUrls.isBlank(), pinAfterWriteMs);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public HandlerExecutor handlerExecutor() {
+        return new HandlerExecutor(asyncMode, asyncPoolSize, asyncQueueCapacity, readYourWrites());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+        configurer.registerDeferredResultInterceptors(handlerExecutor());
+
+        AsyncTaskExecutor taskExecutor = handlerExecutor().getTaskExecutor();
+        if (taskExecutor != null) {
+            configurer.setTaskExecutor(taskExecutor);
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(requestMetricsRegistry()));
+        registry.addInterceptor(readYourWrites());
+    }
+
+    @Override
+    public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Réponses texte (ex. /api/metrics/prometheus)
+        converters.add(new StringHttpMessageConverter(StandardCharsets.UTF_8));
+
         MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.setObjectMapper(objectMapper);
+        converter.setObjectMapper(objectMapper());
 
         converters.add(converter);
     }
@@ -1,5 +1,7 @@
 package org.example.config;
 
+import jakarta.servlet.Filter;
+import org.springframework.web.filter.DelegatingFilterProxy;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
 public class WebInitializer extends AbstractAnnotationConfigDispatcherServletInitializer {
@@ -21,4 +23,10 @@ public class WebInitializer extends AbstractAnnotationConfigDispatcherServletIni
     protected String[] getServletMappings() {
         return new String[] { "/" };
     }
-}
\ No newline at end of file
+
+    // Compression gzip (bean "compressionFilter" du contexte racine), appliquée aussi aux dispatchs ASYNC
+    @Override
+    protected Filter[] getServletFilters() {
+        return new Filter[] { new DelegatingFilterProxy("compressionFilter") };
+    }
+}
@@ -1,135 +1,174 @@
 package org.example.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
+import org.example.dto.ApiResponse;
 import org.example.dto.CurrentUserDTO;
 import org.example.dto.LoginRequestDTO;
 import org.example.dto.LoginResponseDTO;
+import org.example.dto.SessionInfoDTO;
+import org.example.exception.ServiceUnavailableException;
 import org.example.model.User;
 import org.example.service.AuthService;
+import org.example.service.TokenService;
+import org.example.web.HandlerExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final AuthService authService;
+    private final TokenService tokenService;
+    private final AuthenticationResolver authenticationResolver;
+    private final HandlerExecutor handlerExecutor;
 
     @Autowired
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, TokenService tokenService,
+                          AuthenticationResolver authenticationResolver, HandlerExecutor handlerExecutor) {
         this.authService = authService;
+        this.tokenService = tokenService;
+        this.authenticationResolver = authenticationResolver;
+        this.handlerExecutor = handlerExecutor;
     }
 
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, Object>> login(
+    public CompletableFuture<ResponseEntity<ApiResponse>> login(
             @RequestBody LoginRequestDTO loginRequest,
-            HttpSession session
+            HttpServletRequest request
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            User user = authService.login(loginRequest);
-
-            session.setAttribute("currentUser", user.getId());
-            session.setAttribute("userEmail", user.getEmail());
-            session.setAttribute("userRole", user.getRole().name());
-            session.setAttribute("userNom", user.getNom());
-
-            LoginResponseDTO loginResponse = new LoginResponseDTO(
-                    user.getId(),
-                    user.getEmail(),
-                    user.getNom(),
-                    user.getRole().name(),
-                    user.getActif()
-            );
-
-            response.put("status", "success");
-            response.put("message", "Login successful");
-            response.put("data", loginResponse);
-            return ResponseEntity.ok(response);
-
-        } catch (IllegalArgumentException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
+        // La requête n'est valide que sur le thread du conteneur : adresse et session lues avant submit.
+        // HttpSession est thread-safe, ses attributs sont posés par le handler
+        String remoteAddr = request.getRemoteAddr();
+        HttpSession session = authenticationResolver.isSessionEnabled() ? request.getSession(true) : null;
+        return handlerExecutor.submit(() -> {
+            try {
+                User user = authService.login(loginRequest, remoteAddr);
+
+                if (session != null) {
+                    session.setAttribute("currentUser", user.getId());
+                    session.setAttribute("userEmail", user.getEmail());
+                    session.setAttribute("userRole", user.getRole().name());
+                    session.setAttribute("userNom", user.getNom());
+                }
+
+                LoginResponseDTO loginResponse = new LoginResponseDTO(
+                        user.getId(),
+                        user.getEmail(),
+                        user.getNom(),
+                        user.getRole().name(),
+                        user.getActif()
+                );
+                if (authenticationResolver.isTokenEnabled()) {
+                    loginResponse.setToken(tokenService.issue(user));
+                }
+
+                return ResponseEntity.ok(new ApiResponse.MessageData<>("Login successful", loginResponse));
+
+            } catch (ServiceUnavailableException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ApiResponse.error(e.getMessage()));
+
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            }
+        }).whenComplete((response, error) -> {
+            // Échec : pas de session laissée derrière une tentative refusée
+            if (session != null && (error != null || !response.getStatusCode().is2xxSuccessful())) {
+                invalidateIfNew(session);
+            }
+        });
     }
 
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getCurrentUser(HttpSession session) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            Long userId = (Long) session.getAttribute("currentUser");
+    public CompletableFuture<ResponseEntity<ApiResponse>> getCurrentUser(HttpServletRequest request) {
+        RequestSnapshot snapshot = RequestSnapshot.of(request, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                CurrentUserDTO authenticated = snapshot.getCurrentUser();
 
-            if (userId == null) {
-                throw new RuntimeException("Not authenticated. Please login.");
-            }
+                if (authenticated == null) {
+                    throw new RuntimeException("Not authenticated. Please login.");
+                }
 
-            CurrentUserDTO currentUser = authService.getCurrentUserById(userId);
+                CurrentUserDTO currentUser = authService.getCurrentUserById(authenticated.getId());
 
-            response.put("status", "success");
-            response.put("data", currentUser);
-            return ResponseEntity.ok(response);
+                return ResponseEntity.ok(new ApiResponse.Data<>(currentUser));
 
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        }
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
+    // Ne refuse jamais la déconnexion : un jeton invalide, expiré ou déjà révoqué n'empêche ni de fermer
+    // la session ni de journaliser la sortie de l'utilisateur identifié
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, Object>> logout(HttpSession session) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            Long userId = (Long) session.getAttribute("currentUser");
+    public CompletableFuture<ResponseEntity<ApiResponse>> logout(HttpServletRequest request) {
+        RequestSnapshot snapshot = RequestSnapshot.of(request, authenticationResolver);
+        HttpSession session = request.getSession(false);
+        String token = authenticationResolver.getBearerToken(request);
+        return handlerExecutor.submit(() -> {
+            CurrentUserDTO authenticated;
+            try {
+                authenticated = snapshot.getCurrentUser();
+            } catch (RuntimeException e) {
+                authenticated = null;
+            }
+
+            if (session != null) {
+                try {
+                    session.invalidate();
+                } catch (IllegalStateException e) {
+                    // Déjà invalidée par une requête concurrente
+                }
+            }
 
-            session.invalidate();
+            if (authenticated != null) {
+                authService.logout(authenticated.getId(), snapshot.getRemoteAddr());
+            }
 
-            if (userId != null) {
-                authService.logout(userId);
+            if (token != null) {
+                tokenService.revoke(token);
             }
 
-            response.put("status", "success");
-            response.put("message", "Logout successful");
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(ApiResponse.success("Logout successful"));
+        });
+    }
+
+    @GetMapping("/session")
+    public ResponseEntity<ApiResponse> checkSession(HttpServletRequest request) {
 
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        CurrentUserDTO authenticated;
+        try {
+            authenticated = authenticationResolver.resolve(request);
+        } catch (RuntimeException e) {
+            authenticated = null;
         }
+        HttpSession session = request.getSession(false);
+
+        SessionInfoDTO sessionData = SessionInfoDTO.of(authenticated, session != null ? session.getId() : null);
+        return ResponseEntity.ok(new ApiResponse.Data<>(sessionData));
     }
 
-    @GetMapping("/session")
-    public ResponseEntity<Map<String, Object>> checkSession(HttpSession session) {
-        Map<String, Object> response = new HashMap<>();
-
-        Long userId = (Long) session.getAttribute("currentUser");
-        String userEmail = (String) session.getAttribute("userEmail");
-        String userRole = (String) session.getAttribute("userRole");
-        String userNom = (String) session.getAttribute("userNom");
-
-        Map<String, Object> sessionData = new HashMap<>();
-        sessionData.put("authenticated", userId != null);
-        sessionData.put("userId", userId);
-        sessionData.put("userEmail", userEmail);
-        sessionData.put("userRole", userRole);
-        sessionData.put("userNom", userNom);
-        sessionData.put("sessionId", session.getId());
-
-        response.put("status", "success");
-        response.put("data", sessionData);
-        return ResponseEntity.ok(response);
+    private static void invalidateIfNew(HttpSession session) {
+        try {
+            if (session.isNew()) {
+                session.invalidate();
+            }
+        } catch (IllegalStateException e) {
+            // Déjà invalidée
+        }
     }
 }
\ No newline at end of file
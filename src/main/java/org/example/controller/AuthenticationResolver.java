@@ -0,0 +1,77 @@
+package org.example.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.example.dto.CurrentUserDTO;
+import org.example.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifie l'utilisateur d'une requête : jeton "Authorization: Bearer ..." en priorité,
+ * puis session HTTP existante (jamais créée ici).
+ */
+@Component
+public class AuthenticationResolver {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final boolean tokenEnabled;
+    private final boolean sessionEnabled;
+
+    @Autowired
+    public AuthenticationResolver(TokenService tokenService,
+                                  @Value("${auth.token.enabled:true}") boolean tokenEnabled,
+                                  @Value("${auth.session.enabled:true}") boolean sessionEnabled) {
+        this.tokenService = tokenService;
+        this.tokenEnabled = tokenEnabled;
+        this.sessionEnabled = sessionEnabled;
+    }
+
+    /**
+     * @return l'utilisateur authentifié, ou null si la requête est anonyme
+     */
+    public CurrentUserDTO resolve(HttpServletRequest request) {
+        String token = getBearerToken(request);
+        if (token != null) {
+            return tokenService.verify(token);
+        }
+
+        if (!sessionEnabled) {
+            return null;
+        }
+        HttpSession session = request.getSession(false);
+        if (session == null || session.getAttribute("currentUser") == null) {
+            return null;
+        }
+        return new CurrentUserDTO(
+                (Long) session.getAttribute("currentUser"),
+                (String) session.getAttribute("userNom"),
+                (String) session.getAttribute("userEmail"),
+                (String) session.getAttribute("userRole"),
+                true
+        );
+    }
+
+    public String getBearerToken(HttpServletRequest request) {
+        if (!tokenEnabled) {
+            return null;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+
+    public boolean isTokenEnabled() {
+        return tokenEnabled;
+    }
+
+    public boolean isSessionEnabled() {
+        return sessionEnabled;
+    }
+}
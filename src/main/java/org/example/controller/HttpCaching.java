@@ -0,0 +1,133 @@
+package org.example.controller;
+
+import org.example.dto.ApiResponse;
+import org.example.dto.UserResponseDTO;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * GET conditionnels (If-None-Match / If-Modified-Since) calculés à partir des en-têtes de la requête,
+ * avant toute sérialisation.
+ *
+ * Les listes n'exposent qu'un ETag, dérivé de la version des listes (UserStatsService) : pas de date
+ * de dernière modification à leur associer sans parcourir la table.
+ */
+final class HttpCaching {
+
+    // Réponse réutilisable mais à revalider à chaque fois (tableaux de bord qui interrogent en boucle)
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private HttpCaching() {
+    }
+
+    // Change à chaque écriture (User.version), y compris deux modifications dans la même milliseconde
+    static String userETag(UserResponseDTO user) {
+        return "\"" + user.getId() + "-" + user.getVersion() + "\"";
+    }
+
+    /**
+     * Version attendue d'après If-Match : null si l'en-tête est absent ou vaut "*",
+     * -1 si aucun des ETag fournis ne désigne cet utilisateur (la précondition échouera).
+     *
+     * Le préfixe W/ est accepté : il n'est ajouté que par la compression gzip (CompressionFilter),
+     * la version désignée reste la même.
+     */
+    static Long ifMatchVersion(RequestSnapshot request, Long id) {
+        String ifMatch = request.getIfMatch();
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+                try {
+                    return Long.parseLong(value.substring(prefix.length(), value.length() - 1));
+                } catch (NumberFormatException e) {
+                    // ETag d'un autre format : ignoré
+                }
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * @param scope       identifie la liste (ex. "active", "role:ADMIN")
+     * @param queryString paramètres de pagination / recherche, qui font partie de la représentation
+     */
+    static String listETag(String scope, long version, String queryString) {
+        String key = scope + "|" + version + "|" + (queryString != null ? queryString : "");
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static boolean isNotModified(RequestSnapshot request, String etag, LocalDateTime lastModified) {
+        String ifNoneMatch = request.getIfNoneMatch();
+        if (ifNoneMatch != null) {
+            return matches(ifNoneMatch, etag);
+        }
+        if (lastModified == null) {
+            return false;
+        }
+
+        long ifModifiedSince = request.getIfModifiedSince();
+        // Les dates HTTP sont à la seconde près
+        return ifModifiedSince >= 0 && toEpochMillis(lastModified) / 1000 <= ifModifiedSince / 1000;
+    }
+
+    static ResponseEntity<ApiResponse> notModified(String etag, LocalDateTime lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL);
+        if (lastModified != null) {
+            builder.lastModified(toInstant(lastModified));
+        }
+        return builder.build();
+    }
+
+    static ResponseEntity<ApiResponse> ok(ApiResponse body, String etag, LocalDateTime lastModified) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL);
+        if (lastModified != null) {
+            builder.lastModified(toInstant(lastModified));
+        }
+        return builder.body(body);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            // Comparaison faible (RFC 9110 §13.1.2) : le préfixe W/ est ignoré
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : toInstant(dateTime).toEpochMilli();
+    }
+
+    // updatedAt est renseigné par LocalDateTime.now(), donc dans le fuseau de la JVM
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.audit.AuditTrail;
+import org.example.metrics.PoolMetricsTrackerFactory;
+import org.example.metrics.PrometheusFormatter;
+import org.example.metrics.QueryMetrics;
+import org.example.metrics.RequestMetricsRegistry;
+import org.example.persistence.ReplicaRoutingDataSource;
+import org.example.service.EmailBloomFilter;
+import org.example.service.PasswordHashingService;
+import org.example.service.UserCache;
+import org.example.service.UserRetentionService;
+import org.example.web.CompressionFilter;
+import org.example.web.HandlerExecutor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private PoolMetricsTrackerFactory poolMetricsTrackerFactory;
+
+    @Autowired
+    private RequestMetricsRegistry requestMetricsRegistry;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private CompressionFilter compressionFilter;
+
+    @Autowired
+    private HandlerExecutor handlerExecutor;
+
+    @Autowired
+    private UserRetentionService userRetentionService;
+
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @GetMapping(value = "/prometheus", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public String scrape() {
+        return PrometheusFormatter.format(requestMetricsRegistry, poolMetricsTrackerFactory);
+    }
+
+    @GetMapping("/requests")
+    public Map<String, Object> getRequestMetrics() {
+        Map<String, Object> response = new HashMap<>();
+
+        Map<String, Object> routes = new TreeMap<>();
+        requestMetricsRegistry.getRoutes().forEach((route, metrics) -> {
+            Map<String, Object> data = new LinkedHashMap<>(metrics.getLatency().toMap());
+            Map<String, Long> statuses = new TreeMap<>();
+            metrics.getStatusCounts().forEach((status, count) -> statuses.put(String.valueOf(status), count.sum()));
+            data.put("statuses", statuses);
+            routes.put(route, data);
+        });
+
+        response.put("status", "success");
+        response.put("data", routes);
+        return response;
+    }
+
+    @GetMapping("/pool")
+    public Map<String, Object> getPoolMetrics() {
+        Map<String, Object> response = new HashMap<>();
+
+        Map<String, Object> pools = new LinkedHashMap<>();
+        poolMetricsTrackerFactory.getPools().forEach((name, metrics) -> pools.put(name, metrics.toMap()));
+
+        response.put("status", "success");
+        response.put("data", pools);
+        return response;
+    }
+
+    @GetMapping("/cache")
+    public Map<String, Object> getCacheMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", userCache.getStats());
+        return response;
+    }
+
+    @GetMapping("/password-hashing")
+    public Map<String, Object> getPasswordHashingMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", passwordHashingService.getStats());
+        return response;
+    }
+
+    @GetMapping("/async")
+    public Map<String, Object> getAsyncMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", handlerExecutor.getStats());
+        return response;
+    }
+
+    @GetMapping("/purge")
+    public Map<String, Object> getPurgeMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", userRetentionService.getStats());
+        return response;
+    }
+
+    @GetMapping("/email-filter")
+    public Map<String, Object> getEmailFilterMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", emailBloomFilter.getStats());
+        return response;
+    }
+
+    @GetMapping("/audit")
+    public Map<String, Object> getAuditMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", auditTrail.getStats());
+        return response;
+    }
+
+    @GetMapping("/replicas")
+    public Map<String, Object> getReplicaMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("data", routingDataSource.getStats());
+        return response;
+    }
+
+    @GetMapping("/compression")
+    public Map<String, Object> getCompressionMetrics() {
+        Map<String, Object> response = new HashMap<>();
+
+        Map<String, Object> data = new LinkedHashMap<>(compressionFilter.getStats().toMap());
+        data.put("deflaterPool", compressionFilter.getPoolStats());
+
+        response.put("status", "success");
+        response.put("data", data);
+        return response;
+    }
+
+    @GetMapping("/hibernate")
+    public Map<String, Object> getHibernateMetrics() {
+        Map<String, Object> response = new HashMap<>();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        data.put("sessionsOpened", statistics.getSessionOpenCount());
+        data.put("transactions", statistics.getTransactionCount());
+        data.put("connectionsObtained", statistics.getConnectCount());
+        data.put("statementsPrepared", statistics.getPrepareStatementCount());
+        data.put("queryExecutions", statistics.getQueryExecutionCount());
+        data.put("queryExecutionMaxMs", statistics.getQueryExecutionMaxTime());
+        data.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        data.put("entityLoads", statistics.getEntityLoadCount());
+        data.put("entityFetches", statistics.getEntityFetchCount());
+        data.put("entityInserts", statistics.getEntityInsertCount());
+        data.put("entityUpdates", statistics.getEntityUpdateCount());
+        data.put("entityDeletes", statistics.getEntityDeleteCount());
+        data.put("collectionLoads", statistics.getCollectionLoadCount());
+        data.put("flushes", statistics.getFlushCount());
+        data.put("optimisticFailures", statistics.getOptimisticFailureCount());
+        data.put("secondLevelCache", ratio(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        data.put("queryCache", ratio(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        data.put("queryPlanCache", ratio(statistics.getQueryPlanCacheHitCount(),
+                statistics.getQueryPlanCacheMissCount(), 0));
+
+        response.put("status", "success");
+        response.put("data", data);
+        return response;
+    }
+
+    @GetMapping("/queries")
+    public Map<String, Object> getSlowestQueries(@RequestParam(defaultValue = "20") int limit,
+                                                 @RequestParam(defaultValue = "mean") String orderBy) {
+        Map<String, Object> response = new HashMap<>();
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("trackedShapes", queryMetrics.getTrackedShapes());
+        data.put("untrackedExecutions", queryMetrics.getUntracked());
+        data.put("queries", queryMetrics.getSlowest(Math.max(1, Math.min(limit, 100)), orderBy));
+
+        response.put("status", "success");
+        response.put("data", data);
+        return response;
+    }
+
+    private static Map<String, Object> ratio(long hits, long misses, long puts) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", hits);
+        map.put("misses", misses);
+        map.put("puts", puts);
+        map.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return map;
+    }
+}
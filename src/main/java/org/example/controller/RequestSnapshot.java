@@ -0,0 +1,81 @@
+package org.example.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.dto.CurrentUserDTO;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Ce dont un handler a besoin de la requête HTTP, lu sur le thread du conteneur avant
+ * HandlerExecutor.submit : l'objet requête n'est pas thread-safe et n'est plus garanti valide une
+ * fois ce thread rendu.
+ */
+final class RequestSnapshot {
+
+    private final CurrentUserDTO currentUser;
+    private final RuntimeException authenticationError;
+    private final String remoteAddr;
+    private final String queryString;
+    private final String ifNoneMatch;
+    private final String ifMatch;
+    private final long ifModifiedSince;
+
+    private RequestSnapshot(HttpServletRequest request, AuthenticationResolver authenticationResolver) {
+        CurrentUserDTO user = null;
+        RuntimeException error = null;
+        try {
+            user = authenticationResolver.resolve(request);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        this.currentUser = user;
+        this.authenticationError = error;
+        this.remoteAddr = request.getRemoteAddr();
+        this.queryString = request.getQueryString();
+        this.ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        this.ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+
+        long date;
+        try {
+            date = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            date = -1;
+        }
+        this.ifModifiedSince = date;
+    }
+
+    static RequestSnapshot of(HttpServletRequest request, AuthenticationResolver authenticationResolver) {
+        return new RequestSnapshot(request, authenticationResolver);
+    }
+
+    /**
+     * @return l'utilisateur authentifié, null si la requête est anonyme ; l'erreur de résolution
+     * (jeton invalide, expiré ou révoqué) est relancée
+     */
+    CurrentUserDTO getCurrentUser() {
+        if (authenticationError != null) {
+            throw authenticationError;
+        }
+        return currentUser;
+    }
+
+    String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    String getQueryString() {
+        return queryString;
+    }
+
+    String getIfNoneMatch() {
+        return ifNoneMatch;
+    }
+
+    String getIfMatch() {
+        return ifMatch;
+    }
+
+    // -1 si l'en-tête est absent ou invalide
+    long getIfModifiedSince() {
+        return ifModifiedSince;
+    }
+}
@@ -1,329 +1,563 @@
 package org.example.controller;
 
-import jakarta.servlet.http.HttpSession;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.audit.AuditTrail;
+import org.example.dto.ApiResponse;
+import org.example.dto.BulkUserResultDTO;
+import org.example.dto.CurrentUserDTO;
+import org.example.dto.CursorPageDTO;
 import org.example.dto.UserRequestDTO;
 import org.example.dto.UserResponseDTO;
+import org.example.dto.UserStatsDTO;
+import org.example.exception.PreconditionFailedException;
+import org.example.exception.ServiceUnavailableException;
+import org.example.model.enums.AuditAction;
 import org.example.service.UserService;
+import org.example.service.UserStatsService;
+import org.example.web.HandlerExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final List<String> PAGINATION_MODES = List.of("offset", "slice", "cursor");
+
     private final UserService userService;
+    private final UserStatsService userStatsService;
+    private final ObjectMapper objectMapper;
+    private final AuthenticationResolver authenticationResolver;
+    private final HandlerExecutor handlerExecutor;
+    private final AuditTrail auditTrail;
 
     @Autowired
-    public UserController(UserService userService){
+    public UserController(UserService userService, UserStatsService userStatsService, ObjectMapper objectMapper,
+                          AuthenticationResolver authenticationResolver, HandlerExecutor handlerExecutor,
+                          AuditTrail auditTrail){
         this.userService = userService;
+        this.userStatsService = userStatsService;
+        this.objectMapper = objectMapper;
+        this.authenticationResolver = authenticationResolver;
+        this.handlerExecutor = handlerExecutor;
+        this.auditTrail = auditTrail;
     }
 
-    private void checkAuthenticated(HttpSession session) {
-        Long userId = (Long) session.getAttribute("currentUser");
-        if (userId == null) {
+    private CurrentUserDTO checkAuthenticated(RequestSnapshot snapshot) {
+        CurrentUserDTO currentUser;
+        try {
+            currentUser = snapshot.getCurrentUser();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Authentication required. " + e.getMessage());
+        }
+        if (currentUser == null) {
             throw new RuntimeException("Authentication required. Please login.");
         }
+        return currentUser;
     }
 
-    private void checkAdmin(HttpSession session) {
-        checkAuthenticated(session);
-        String userRole = (String) session.getAttribute("userRole");
-        if (!"ADMIN".equals(userRole)) {
+    private CurrentUserDTO checkAdmin(RequestSnapshot snapshot) {
+        CurrentUserDTO currentUser = checkAuthenticated(snapshot);
+        if (!"ADMIN".equals(currentUser.getRole())) {
             throw new RuntimeException("Access denied. Admin role required.");
         }
+        return currentUser;
+    }
+
+    // Champs fournis dans une mise à jour, sans leurs valeurs (le mot de passe n'apparaît que par son nom)
+    private static List<String> updatedFields(UserRequestDTO request) {
+        List<String> fields = new ArrayList<>();
+        if (request.getNom() != null) {
+            fields.add("nom");
+        }
+        if (request.getEmail() != null) {
+            fields.add("email");
+        }
+        if (request.getMotDePasse() != null && !request.getMotDePasse().trim().isEmpty()) {
+            fields.add("motDePasse");
+        }
+        if (request.getRole() != null) {
+            fields.add("role");
+        }
+        if (request.getActif() != null) {
+            fields.add("actif");
+        }
+        return fields;
     }
 
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createUser(
+    public CompletableFuture<ResponseEntity<ApiResponse>> createUser(
             @RequestBody UserRequestDTO request,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAdmin(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                CurrentUserDTO admin = checkAdmin(snapshot);
 
-            UserResponseDTO user = userService.createUser(request);
-            response.put("status", "success");
-            response.put("message", "User created successfully");
-            response.put("data", user);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : e.getMessage().contains("Access denied")
-                    ? HttpStatus.FORBIDDEN
-                    : HttpStatus.BAD_REQUEST;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+                UserResponseDTO user = userService.createUser(request);
+                auditTrail.record(AuditAction.USER_CREATED, admin.getId(), user.getId(), snapshot.getRemoteAddr(),
+                        "email=" + user.getEmail() + ", role=" + user.getRole());
+                return ResponseEntity.status(HttpStatus.CREATED)
+                        .body(new ApiResponse.MessageData<>("User created successfully", user));
+            } catch (ServiceUnavailableException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ApiResponse.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : e.getMessage().contains("Access denied")
+                        ? HttpStatus.FORBIDDEN
+                        : HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+            }
+        });
+    }
+
+    @PostMapping("/bulk")
+    public CompletableFuture<ResponseEntity<ApiResponse>> bulkCreateUsers(
+            @RequestBody List<UserRequestDTO> requests,
+            HttpServletRequest httpRequest
+    ) {
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                CurrentUserDTO admin = checkAdmin(snapshot);
+
+                List<BulkUserResultDTO> results = userService.bulkCreateUsers(requests);
+                for (BulkUserResultDTO result : results) {
+                    if ("created".equals(result.getStatus())) {
+                        auditTrail.record(AuditAction.USER_CREATED, admin.getId(), result.getId(),
+                                snapshot.getRemoteAddr(), "email=" + result.getEmail() + ", bulk");
+                    }
+                }
+                long created = results.stream().filter(r -> "created".equals(r.getStatus())).count();
+
+                return ResponseEntity.ok(new ApiResponse.BulkResult(created, results.size() - created, results));
+            } catch (ServiceUnavailableException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ApiResponse.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : e.getMessage().contains("Access denied")
+                        ? HttpStatus.FORBIDDEN
+                        : HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            }
+        });
+    }
+
+    // Plusieurs utilisateurs en un aller-retour (listes de propriétaires, d'assignés...)
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<ApiResponse>> getUsersByIds(
+            @RequestBody List<Long> ids,
+            HttpServletRequest httpRequest
+    ) {
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
+
+                Map<Long, UserResponseDTO> users = userService.getUsersByIds(ids);
+                List<Long> missing = ids.stream()
+                        .distinct()
+                        .filter(id -> !users.containsKey(id))
+                        .toList();
+
+                return ResponseEntity.ok(new ApiResponse.Batch<>(users, missing));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllUsers(HttpSession session) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAuthenticated(session);
+    public CompletableFuture<ResponseEntity<ApiResponse>> getAllUsers(HttpServletRequest httpRequest) {
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
 
-            List<UserResponseDTO> users = userService.getAllUsers();
-            response.put("status", "success");
-            response.put("count", users.size());
-            response.put("data", users);
-            return ResponseEntity.ok(response);
+                // Version et lignes lues dans la même transaction, donc sur le même réplica : au pire l'ETag
+                // est plus ancien que le contenu, jamais l'inverse
+                return userStatsService.withListVersion(version -> {
+                    String etag = HttpCaching.listETag("active", version, null);
+                    if (HttpCaching.isNotModified(snapshot, etag, null)) {
+                        return HttpCaching.notModified(etag, null);
+                    }
+
+                    List<UserResponseDTO> users = userService.getAllUsers();
+                    return HttpCaching.ok(new ApiResponse.CountedList<>(users), etag, null);
+                });
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+            }
+        });
+    }
+
+    // Compteurs maintenus à l'écriture : quelques lignes lues, quelle que soit la taille de la table
+    @GetMapping("/stats")
+    public CompletableFuture<ResponseEntity<ApiResponse>> getUserStats(HttpServletRequest httpRequest) {
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
+
+                UserStatsDTO stats = userStatsService.getStats();
+                return ResponseEntity.ok(new ApiResponse.Data<>(stats));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            }
+        });
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(HttpServletRequest httpRequest) {
+        try {
+            checkAuthenticated(RequestSnapshot.of(httpRequest, authenticationResolver));
         } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            ApiResponse response = ApiResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(outputStream -> objectMapper.writeValue(outputStream, response));
         }
+
+        // Un objet JSON par ligne (NDJSON), écrit au fil de la lecture du curseur JDBC
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(UserResponseDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                userService.streamAllUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(body);
     }
 
+    // Utilisateurs non supprimés quel que soit le mode : offset (total exact), slice (hasNext, total estimé
+    // sur demande) ou cursor (pagination par clé). Un autre mode est refusé (400)
     @GetMapping("/paginated")
-    public ResponseEntity<Map<String, Object>> getAllUsersPaginated(
+    public CompletableFuture<ResponseEntity<ApiResponse>> getAllUsersPaginated(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sortBy", defaultValue = "id") String sortBy,
             @RequestParam(value = "direction", defaultValue = "asc") String direction,
-            HttpSession session
+            @RequestParam(value = "mode", defaultValue = "offset") String mode,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "approximateTotal", defaultValue = "false") boolean approximateTotal,
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAuthenticated(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
+                if (!PAGINATION_MODES.contains(mode.toLowerCase(Locale.ROOT))) {
+                    throw new IllegalArgumentException("Invalid mode: " + mode + ". Valid modes are: " +
+                            String.join(", ", PAGINATION_MODES));
+                }
 
-            Sort.Direction sortDirection = direction.equalsIgnoreCase("desc")
-                    ? Sort.Direction.DESC : Sort.Direction.ASC;
-            Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+                Sort.Direction sortDirection = direction.equalsIgnoreCase("desc")
+                        ? Sort.Direction.DESC : Sort.Direction.ASC;
 
-            Page<UserResponseDTO> usersPage = userService.getAllUsersPaginated(pageable);
+                // Version et lignes lues dans la même transaction, donc sur le même réplica : au pire l'ETag
+                // est plus ancien que le contenu, jamais l'inverse
+                return userStatsService.withListVersion(version -> {
+                    String etag = HttpCaching.listETag("all", version, snapshot.getQueryString());
+                    if (HttpCaching.isNotModified(snapshot, etag, null)) {
+                        return HttpCaching.notModified(etag, null);
+                    }
 
-            response.put("status", "success");
-            response.put("data", usersPage.getContent());
-            response.put("currentPage", usersPage.getNumber());
-            response.put("totalPages", usersPage.getTotalPages());
-            response.put("totalElements", usersPage.getTotalElements());
+                    if (mode.equalsIgnoreCase("cursor")) {
+                        CursorPageDTO<UserResponseDTO> usersPage =
+                                userService.getUsersByCursor(cursor, size, sortBy, sortDirection);
 
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+                        return HttpCaching.ok(new ApiResponse.CursorPage<>(usersPage), etag, null);
+                    }
+
+                    Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+
+                    // Défilement infini : pas de COUNT(*), seulement hasNext (et un total estimé sur demande)
+                    if (mode.equalsIgnoreCase("slice")) {
+                        Slice<UserResponseDTO> usersSlice = userService.getAllUsersSlice(pageable);
+
+                        if (approximateTotal) {
+                            return HttpCaching.ok(new ApiResponse.EstimatedSlicePage<>(usersSlice.getContent(),
+                                    usersSlice.getNumber(), usersSlice.hasNext(),
+                                    userService.getApproximateUserCount()), etag, null);
+                        }
+                        return HttpCaching.ok(new ApiResponse.SlicePage<>(usersSlice.getContent(),
+                                usersSlice.getNumber(), usersSlice.hasNext()), etag, null);
+                    }
+
+                    Page<UserResponseDTO> usersPage = userService.getAllUsersPaginated(pageable);
+
+                    return HttpCaching.ok(new ApiResponse.OffsetPage<>(usersPage.getContent(), usersPage.getNumber(),
+                            usersPage.getTotalPages(), usersPage.getTotalElements()), etag, null);
+                });
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getUserById(
+    public CompletableFuture<ResponseEntity<ApiResponse>> getUserById(
             @PathVariable("id") Long id,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAuthenticated(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
 
-            UserResponseDTO user = userService.getUserById(id);
-            response.put("status", "success");
-            response.put("data", user);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : HttpStatus.NOT_FOUND;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
+                // Servi par le cache : ni requête ni sérialisation quand l'ETag correspond
+                UserResponseDTO user = userService.getUserById(id);
+                String etag = HttpCaching.userETag(user);
+                if (HttpCaching.isNotModified(snapshot, etag, user.getUpdatedAt())) {
+                    return HttpCaching.notModified(etag, user.getUpdatedAt());
+                }
+                return HttpCaching.ok(new ApiResponse.Data<>(user), etag, user.getUpdatedAt());
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @GetMapping("/email/{email}")
-    public ResponseEntity<Map<String, Object>> getUserByEmail(
+    public CompletableFuture<ResponseEntity<ApiResponse>> getUserByEmail(
             @PathVariable("email") String email,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAuthenticated(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
 
-            UserResponseDTO user = userService.getUserByEmail(email);
-            response.put("status", "success");
-            response.put("data", user);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : HttpStatus.NOT_FOUND;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
+                UserResponseDTO user = userService.getUserByEmail(email);
+                String etag = HttpCaching.userETag(user);
+                if (HttpCaching.isNotModified(snapshot, etag, user.getUpdatedAt())) {
+                    return HttpCaching.notModified(etag, user.getUpdatedAt());
+                }
+                return HttpCaching.ok(new ApiResponse.Data<>(user), etag, user.getUpdatedAt());
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchUsers(
+    public CompletableFuture<ResponseEntity<ApiResponse>> searchUsers(
             @RequestParam(value = "name") String name,
-            HttpSession session
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAuthenticated(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
 
-            List<UserResponseDTO> users = userService.searchUsersByName(name);
-            response.put("status", "success");
-            response.put("count", users.size());
-            response.put("data", users);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
-        }
+                // Version et lignes lues dans la même transaction, donc sur le même réplica : au pire l'ETag
+                // est plus ancien que le contenu, jamais l'inverse
+                return userStatsService.withListVersion(version -> {
+                    String etag = HttpCaching.listETag("search", version, snapshot.getQueryString());
+                    if (HttpCaching.isNotModified(snapshot, etag, null)) {
+                        return HttpCaching.notModified(etag, null);
+                    }
+
+                    CursorPageDTO<UserResponseDTO> users = userService.searchUsers(name, limit, cursor);
+                    return HttpCaching.ok(new ApiResponse.SearchPage<>(users), etag, null);
+                });
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @GetMapping("/role/{role}")
-    public ResponseEntity<Map<String, Object>> getUsersByRole(
+    public CompletableFuture<ResponseEntity<ApiResponse>> getUsersByRole(
             @PathVariable("role") String role,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAuthenticated(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                checkAuthenticated(snapshot);
 
-            List<UserResponseDTO> users = userService.getUsersByRole(role);
-            response.put("status", "success");
-            response.put("count", users.size());
-            response.put("data", users);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : HttpStatus.BAD_REQUEST;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+                // Version et lignes lues dans la même transaction, donc sur le même réplica : au pire l'ETag
+                // est plus ancien que le contenu, jamais l'inverse
+                return userStatsService.withListVersion(version -> {
+                    String etag = HttpCaching.listETag("role:" + role.toUpperCase(), version, null);
+                    if (HttpCaching.isNotModified(snapshot, etag, null)) {
+                        return HttpCaching.notModified(etag, null);
+                    }
+
+                    List<UserResponseDTO> users = userService.getUsersByRole(role);
+                    return HttpCaching.ok(new ApiResponse.CountedList<>(users), etag, null);
+                });
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateUser(
+    public CompletableFuture<ResponseEntity<ApiResponse>> updateUser(
             @PathVariable("id") Long id,
             @RequestBody UserRequestDTO request,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAdmin(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            Long expectedVersion = HttpCaching.ifMatchVersion(snapshot, id);
+            try {
+                CurrentUserDTO admin = checkAdmin(snapshot);
 
-            UserResponseDTO user = userService.updateUser(id, request);
-            response.put("status", "success");
-            response.put("message", "User updated successfully");
-            response.put("data", user);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : e.getMessage().contains("Access denied")
-                    ? HttpStatus.FORBIDDEN
-                    : HttpStatus.BAD_REQUEST;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
-        }
+                UserResponseDTO user = userService.updateUser(id, request, expectedVersion);
+                auditTrail.record(AuditAction.USER_UPDATED, admin.getId(), id, snapshot.getRemoteAddr(),
+                        "fields=" + String.join(",", updatedFields(request)));
+                return ResponseEntity.ok()
+                        .eTag(HttpCaching.userETag(user))
+                        .body(new ApiResponse.MessageData<>("User updated successfully", user));
+            } catch (PreconditionFailedException e) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ApiResponse.error(e.getMessage()));
+            } catch (OptimisticLockingFailureException e) {
+                // Modifié entre la lecture et l'UPDATE : 412 si le client avait posé une condition, 409 sinon
+                HttpStatus status = expectedVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+                return ResponseEntity.status(status)
+                        .body(ApiResponse.error("User " + id + " was modified concurrently. Reload it and retry."));
+            } catch (ServiceUnavailableException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ApiResponse.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : e.getMessage().contains("Access denied")
+                        ? HttpStatus.FORBIDDEN
+                        : HttpStatus.BAD_REQUEST;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @DeleteMapping("/{id}/soft")
-    public ResponseEntity<Map<String, Object>> softDeleteUser(
+    public CompletableFuture<ResponseEntity<ApiResponse>> softDeleteUser(
             @PathVariable("id") Long id,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAdmin(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                CurrentUserDTO admin = checkAdmin(snapshot);
 
-            userService.softDeleteUser(id);
-            response.put("status", "success");
-            response.put("message", "User soft deleted successfully");
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : e.getMessage().contains("Access denied")
-                    ? HttpStatus.FORBIDDEN
-                    : HttpStatus.NOT_FOUND;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
+                userService.softDeleteUser(id);
+                auditTrail.record(AuditAction.USER_SOFT_DELETED, admin.getId(), id, snapshot.getRemoteAddr(), null);
+                return ResponseEntity.ok(ApiResponse.success("User soft deleted successfully"));
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : e.getMessage().contains("Access denied")
+                        ? HttpStatus.FORBIDDEN
+                        : HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 
     @DeleteMapping("/{id}/hard")
-    public ResponseEntity<Map<String, Object>> hardDeleteUser(
+    public CompletableFuture<ResponseEntity<ApiResponse>> hardDeleteUser(
             @PathVariable("id") Long id,
-            HttpSession session
+            HttpServletRequest httpRequest
     ) {
-        Map<String, Object> response = new HashMap<>();
-        try {
-            checkAdmin(session);
+        RequestSnapshot snapshot = RequestSnapshot.of(httpRequest, authenticationResolver);
+        return handlerExecutor.submit(() -> {
+            try {
+                CurrentUserDTO admin = checkAdmin(snapshot);
 
-            userService.hardDeleteUser(id);
-            response.put("status", "success");
-            response.put("message", "User permanently deleted");
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            HttpStatus status = e.getMessage().contains("Authentication")
-                    ? HttpStatus.UNAUTHORIZED
-                    : e.getMessage().contains("Access denied")
-                    ? HttpStatus.FORBIDDEN
-                    : HttpStatus.NOT_FOUND;
-            return ResponseEntity.status(status).body(response);
-        } catch (Exception e) {
-            response.put("status", "error");
-            response.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-        }
+                userService.hardDeleteUser(id);
+                auditTrail.record(AuditAction.USER_HARD_DELETED, admin.getId(), id, snapshot.getRemoteAddr(), null);
+                return ResponseEntity.ok(ApiResponse.success("User permanently deleted"));
+            } catch (RuntimeException e) {
+                HttpStatus status = e.getMessage().contains("Authentication")
+                        ? HttpStatus.UNAUTHORIZED
+                        : e.getMessage().contains("Access denied")
+                        ? HttpStatus.FORBIDDEN
+                        : HttpStatus.NOT_FOUND;
+                return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(e.getMessage()));
+            }
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Enveloppes de réponse typées et immuables des contrôleurs.
+ *
+ * Le JSON produit est identique à celui des anciennes enveloppes HashMap : mêmes clés, valeurs
+ * null conservées, et ordre des propriétés égal à l'ordre d'itération de HashMap pour ces clés
+ * (d'où les @JsonPropertyOrder). Ne pas réordonner sans accepter de changer le format.
+ */
+public sealed interface ApiResponse {
+
+    String SUCCESS = "success";
+    String ERROR = "error";
+
+    String status();
+
+    static Message error(String message) {
+        return new Message(ERROR, message);
+    }
+
+    static Message success(String message) {
+        return new Message(SUCCESS, message);
+    }
+
+    @JsonPropertyOrder({"message", "status"})
+    record Message(String status, String message) implements ApiResponse {
+    }
+
+    @JsonPropertyOrder({"data", "message", "status"})
+    record MessageData<T>(String status, String message, T data) implements ApiResponse {
+
+        public MessageData(String message, T data) {
+            this(SUCCESS, message, data);
+        }
+    }
+
+    @JsonPropertyOrder({"data", "status"})
+    record Data<T>(String status, T data) implements ApiResponse {
+
+        public Data(T data) {
+            this(SUCCESS, data);
+        }
+    }
+
+    @JsonPropertyOrder({"data", "count", "status"})
+    record CountedList<T>(String status, int count, List<T> data) implements ApiResponse {
+
+        public CountedList(List<T> data) {
+            this(SUCCESS, data.size(), data);
+        }
+    }
+
+    @JsonPropertyOrder({"data", "created", "failed", "status"})
+    record BulkResult(String status, long created, long failed, List<BulkUserResultDTO> data)
+            implements ApiResponse {
+
+        public BulkResult(long created, long failed, List<BulkUserResultDTO> data) {
+            this(SUCCESS, created, failed, data);
+        }
+    }
+
+    @JsonPropertyOrder({"nextCursor", "data", "hasNext", "status"})
+    record CursorPage<T>(String status, List<T> data, String nextCursor, boolean hasNext)
+            implements ApiResponse {
+
+        public CursorPage(CursorPageDTO<T> page) {
+            this(SUCCESS, page.getContent(), page.getNextCursor(), page.isHasNext());
+        }
+    }
+
+    @JsonPropertyOrder({"nextCursor", "data", "count", "hasNext", "status"})
+    record SearchPage<T>(String status, int count, List<T> data, String nextCursor, boolean hasNext)
+            implements ApiResponse {
+
+        public SearchPage(CursorPageDTO<T> page) {
+            this(SUCCESS, page.getContent().size(), page.getContent(), page.getNextCursor(), page.isHasNext());
+        }
+    }
+
+    @JsonPropertyOrder({"data", "totalPages", "currentPage", "status", "totalElements"})
+    record OffsetPage<T>(String status, List<T> data, int currentPage, int totalPages, long totalElements)
+            implements ApiResponse {
+
+        public OffsetPage(List<T> data, int currentPage, int totalPages, long totalElements) {
+            this(SUCCESS, data, currentPage, totalPages, totalElements);
+        }
+    }
+
+    @JsonPropertyOrder({"data", "hasNext", "currentPage", "status"})
+    record SlicePage<T>(String status, List<T> data, int currentPage, boolean hasNext) implements ApiResponse {
+
+        public SlicePage(List<T> data, int currentPage, boolean hasNext) {
+            this(SUCCESS, data, currentPage, hasNext);
+        }
+    }
+
+    // Recherche groupée : utilisateurs indexés par id (dans l'ordre demandé) et ids introuvables
+    @JsonPropertyOrder({"data", "missing", "status"})
+    record Batch<T>(String status, Map<Long, T> data, List<Long> missing) implements ApiResponse {
+
+        public Batch(Map<Long, T> data, List<Long> missing) {
+            this(SUCCESS, data, missing);
+        }
+    }
+
+    // approximateTotal peut valoir null (table jamais analysée) mais la clé est alors présente
+    @JsonPropertyOrder({"data", "approximateTotal", "hasNext", "currentPage", "status"})
+    record EstimatedSlicePage<T>(String status, List<T> data, int currentPage, boolean hasNext,
+                                 Long approximateTotal) implements ApiResponse {
+
+        public EstimatedSlicePage(List<T> data, int currentPage, boolean hasNext, Long approximateTotal) {
+            this(SUCCESS, data, currentPage, hasNext, approximateTotal);
+        }
+    }
+}
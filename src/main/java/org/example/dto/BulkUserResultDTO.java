@@ -0,0 +1,71 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkUserResultDTO {
+    private int index;
+    private String status;
+    private Long id;
+    private String email;
+    private String message;
+
+    public BulkUserResultDTO() {
+    }
+
+    public BulkUserResultDTO(int index, String status, Long id, String email, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.email = email;
+        this.message = message;
+    }
+
+    public static BulkUserResultDTO created(int index, Long id, String email) {
+        return new BulkUserResultDTO(index, "created", id, email, null);
+    }
+
+    public static BulkUserResultDTO error(int index, String email, String message) {
+        return new BulkUserResultDTO(index, "error", null, email, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,11 +1,15 @@
 package org.example.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class LoginResponseDTO {
     private Long userId;
     private String email;
     private String nom;
     private String role;
     private Boolean actif;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String token;
 
     public LoginResponseDTO() {
     }
@@ -38,6 +42,10 @@ public class LoginResponseDTO {
         return actif;
     }
 
+    public String getToken() {
+        return token;
+    }
+
     public void setUserId(Long userId) {
         this.userId = userId;
     }
@@ -57,4 +65,8 @@ public class LoginResponseDTO {
     public void setActif(Boolean actif) {
         this.actif = actif;
     }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+// Ordre des propriétés identique à l'ancienne Map (ordre d'itération de HashMap)
+@JsonPropertyOrder({"authenticated", "userEmail", "userNom", "sessionId", "userRole", "userId"})
+public record SessionInfoDTO(boolean authenticated, Long userId, String userEmail, String userRole,
+                             String userNom, String sessionId) {
+
+    public static SessionInfoDTO of(CurrentUserDTO user, String sessionId) {
+        if (user == null) {
+            return new SessionInfoDTO(false, null, null, null, null, sessionId);
+        }
+        return new SessionInfoDTO(true, user.getId(), user.getEmail(), user.getRole(), user.getNom(), sessionId);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.dto;
+
+import org.example.model.enums.Role;
+import org.example.model.enums.UserStatus;
+
+/**
+ * Nombre d'utilisateurs pour un couple (rôle, état).
+ */
+public record UserCountDTO(Role role, UserStatus status, Long count) {
+}
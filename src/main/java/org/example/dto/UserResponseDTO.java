@@ -1,8 +1,10 @@
 package org.example.dto;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.example.model.enums.Role;
 import org.example.model.User;
+import org.example.util.LocalDateTimeSecondsSerializer;
 
 import java.time.LocalDateTime;
 
@@ -13,17 +15,20 @@ public class UserResponseDTO {
     private String email;
     private Role role;
     private Boolean actif;
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSecondsSerializer.class)
     private LocalDateTime createdAt;
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSecondsSerializer.class)
     private LocalDateTime updatedAt;
+    // Exposée uniquement via l'ETag (HttpCaching.userETag), pas dans le corps
+    @JsonIgnore
+    private Long version;
 
     // Constructeurs
     public UserResponseDTO() {
     }
 
     public UserResponseDTO(Long id, String nom, String email, Role role, Boolean actif,
-                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+                           LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
         this.id = id;
         this.nom = nom;
         this.email = email;
@@ -31,6 +36,7 @@ public class UserResponseDTO {
         this.actif = actif;
         this.createdAt = createdAt;
         this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     // Méthode static pour convertir Entity → DTO
@@ -45,7 +51,8 @@ public class UserResponseDTO {
                 user.getRole(),
                 user.getActif(),
                 user.getCreatedAt(),
-                user.getUpdatedAt()
+                user.getUpdatedAt(),
+                user.getVersion()
         );
     }
 
@@ -106,6 +113,14 @@ public class UserResponseDTO {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "UserResponseDTO{" +
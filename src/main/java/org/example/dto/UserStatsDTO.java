@@ -0,0 +1,16 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Statistiques des utilisateurs (GET /api/users/stats), globales puis par rôle.
+ *
+ * @param reconciledAt dernière comparaison des compteurs avec la table users (null avant la première)
+ */
+public record UserStatsDTO(long total, long active, long inactive, long deleted,
+                           Map<String, Counts> byRole, LocalDateTime reconciledAt) {
+
+    public record Counts(long total, long active, long inactive, long deleted) {
+    }
+}
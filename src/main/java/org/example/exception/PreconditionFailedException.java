@@ -0,0 +1,12 @@
+package org.example.exception;
+
+/**
+ * Levée lorsqu'une écriture conditionnelle (If-Match) vise une version qui n'est plus la version courante.
+ * Les contrôleurs la traduisent en HTTP 412.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
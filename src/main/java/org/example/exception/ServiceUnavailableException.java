@@ -0,0 +1,12 @@
+package org.example.exception;
+
+/**
+ * Levée lorsqu'une ressource bornée (pool de threads, file d'attente) est saturée.
+ * Les contrôleurs la traduisent en HTTP 503.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -37,6 +37,7 @@ public class UserMapper {
         response.setActif(user.getActif());
         response.setCreatedAt(user.getCreatedAt());
         response.setUpdatedAt(user.getUpdatedAt());
+        response.setVersion(user.getVersion());
 
         return response;
     }
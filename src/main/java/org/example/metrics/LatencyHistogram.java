@@ -0,0 +1,140 @@
+package org.example.metrics;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences à buckets fixes, sans verrou (LongAdder par bucket).
+ * Les percentiles sont estimés par interpolation linéaire dans le bucket concerné.
+ */
+public class LatencyHistogram {
+
+    // Bornes supérieures des buckets en millisecondes (le dernier bucket est +Inf)
+    private static final double[] BOUNDS_MS = {
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        double ms = nanos / 1_000_000.0;
+        int index = BOUNDS_MS.length;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            if (ms <= BOUNDS_MS[i]) {
+                index = i;
+                break;
+            }
+        }
+        buckets[index].increment();
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public void record(long duration, TimeUnit unit) {
+        record(unit.toNanos(duration));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumMillis() {
+        return sumNanos.sum() / 1_000_000.0;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : getSumMillis() / n;
+    }
+
+    /**
+     * @param quantile entre 0 et 1 (ex. 0.99)
+     */
+    public double getPercentileMillis(double quantile) {
+        long[] counts = bucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        double rank = quantile * total;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (seen + counts[i] >= rank) {
+                double lower = i == 0 ? 0 : BOUNDS_MS[i - 1];
+                double upper = i < BOUNDS_MS.length ? BOUNDS_MS[i] : Math.max(lower, getMaxMillis());
+                double fraction = (rank - seen) / counts[i];
+                return Math.min(lower + (upper - lower) * fraction, getMaxMillis());
+            }
+            seen += counts[i];
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Compteurs cumulés par borne supérieure, au format attendu par Prometheus (le="...").
+     */
+    public Map<String, Long> getCumulativeBuckets() {
+        long[] counts = bucketCounts();
+        Map<String, Long> result = new LinkedHashMap<>();
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) {
+            cumulative += counts[i];
+            result.put(BigDecimal.valueOf(BOUNDS_MS[i]).movePointLeft(3).stripTrailingZeros().toPlainString(),
+                    cumulative);
+        }
+        cumulative += counts[BOUNDS_MS.length];
+        result.put("+Inf", cumulative);
+        return result;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", getCount());
+        map.put("meanMs", round(getMeanMillis()));
+        map.put("p50Ms", round(getPercentileMillis(0.50)));
+        map.put("p95Ms", round(getPercentileMillis(0.95)));
+        map.put("p99Ms", round(getPercentileMillis(0.99)));
+        map.put("maxMs", round(getMaxMillis()));
+        return map;
+    }
+
+    private long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collecte les métriques HikariCP de chaque pool : état courant (actives, inactives, en attente)
+ * et histogrammes des temps d'attente, d'utilisation et de création des connexions.
+ */
+public class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final Map<String, PoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolMetrics metrics = new PoolMetrics(poolStats);
+        pools.put(poolName, metrics);
+        return metrics;
+    }
+
+    public Map<String, PoolMetrics> getPools() {
+        return pools;
+    }
+
+    public static class PoolMetrics implements IMetricsTracker {
+
+        private final PoolStats poolStats;
+        private final LatencyHistogram acquireTime = new LatencyHistogram();
+        private final LatencyHistogram usageTime = new LatencyHistogram();
+        private final LatencyHistogram creationTime = new LatencyHistogram();
+        private final LongAdder timeouts = new LongAdder();
+
+        PoolMetrics(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireTime.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageTime.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            creationTime.record(connectionCreatedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        public PoolStats getPoolStats() {
+            return poolStats;
+        }
+
+        public LatencyHistogram getAcquireTime() {
+            return acquireTime;
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("active", poolStats.getActiveConnections());
+            map.put("idle", poolStats.getIdleConnections());
+            map.put("pending", poolStats.getPendingThreads());
+            map.put("total", poolStats.getTotalConnections());
+            map.put("min", poolStats.getMinConnections());
+            map.put("max", poolStats.getMaxConnections());
+            map.put("timeouts", getTimeouts());
+            map.put("acquireTime", acquireTime.toMap());
+            map.put("usageTime", usageTime.toMap());
+            map.put("creationTime", creationTime.toMap());
+            return map;
+        }
+    }
+}
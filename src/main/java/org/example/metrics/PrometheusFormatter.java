@@ -0,0 +1,76 @@
+package org.example.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rendu des métriques au format texte Prometheus (version 0.0.4).
+ */
+public final class PrometheusFormatter {
+
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private PrometheusFormatter() {
+    }
+
+    public static String format(RequestMetricsRegistry requests, PoolMetricsTrackerFactory pools) {
+        StringBuilder out = new StringBuilder(4096);
+        Map<String, RequestMetricsRegistry.RouteMetrics> routes = new TreeMap<>(requests.getRoutes());
+
+        out.append("# HELP http_server_requests_total Requests handled, by route and status.\n");
+        out.append("# TYPE http_server_requests_total counter\n");
+        routes.values().forEach(metrics -> new TreeMap<>(metrics.getStatusCounts()).forEach((status, count) ->
+                out.append("http_server_requests_total{")
+                        .append(routeLabels(metrics))
+                        .append(",status=\"").append(status).append("\"} ")
+                        .append(count.sum()).append('\n')));
+
+        out.append("# HELP http_server_request_duration_seconds Request latency, by route.\n");
+        out.append("# TYPE http_server_request_duration_seconds histogram\n");
+        routes.values().forEach(metrics -> {
+            String labels = routeLabels(metrics);
+            LatencyHistogram latency = metrics.getLatency();
+            latency.getCumulativeBuckets().forEach((le, count) ->
+                    out.append("http_server_request_duration_seconds_bucket{")
+                            .append(labels).append(",le=\"").append(le).append("\"} ")
+                            .append(count).append('\n'));
+            out.append("http_server_request_duration_seconds_sum{").append(labels).append("} ")
+                    .append(latency.getSumMillis() / 1000.0).append('\n');
+            out.append("http_server_request_duration_seconds_count{").append(labels).append("} ")
+                    .append(latency.getCount()).append('\n');
+        });
+
+        out.append("# HELP http_server_request_duration_quantile_seconds Estimated latency percentiles, by route.\n");
+        out.append("# TYPE http_server_request_duration_quantile_seconds gauge\n");
+        routes.values().forEach(metrics -> {
+            for (double quantile : QUANTILES) {
+                out.append("http_server_request_duration_quantile_seconds{")
+                        .append(routeLabels(metrics))
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(metrics.getLatency().getPercentileMillis(quantile) / 1000.0).append('\n');
+            }
+        });
+
+        out.append("# HELP db_pool_connections Connections of the JDBC pool, by state.\n");
+        out.append("# TYPE db_pool_connections gauge\n");
+        new TreeMap<>(pools.getPools()).forEach((pool, metrics) -> {
+            String labels = "pool=\"" + escape(pool) + "\"";
+            out.append("db_pool_connections{").append(labels).append(",state=\"active\"} ")
+                    .append(metrics.getPoolStats().getActiveConnections()).append('\n');
+            out.append("db_pool_connections{").append(labels).append(",state=\"idle\"} ")
+                    .append(metrics.getPoolStats().getIdleConnections()).append('\n');
+            out.append("db_pool_connections{").append(labels).append(",state=\"pending\"} ")
+                    .append(metrics.getPoolStats().getPendingThreads()).append('\n');
+        });
+
+        return out.toString();
+    }
+
+    private static String routeLabels(RequestMetricsRegistry.RouteMetrics metrics) {
+        return "method=\"" + escape(metrics.getMethod()) + "\",route=\"" + escape(metrics.getRoute()) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistiques par forme de requête SQL (le texte préparé avec ses "?") et journal des requêtes lentes.
+ * Seules les requêtes au-delà du seuil sont journalisées, avec le nombre de paramètres liés et la
+ * méthode de repository appelante.
+ */
+public class QueryMetrics {
+
+    private static final Logger log = LoggerFactory.getLogger("org.example.sql.slow");
+    private static final String REPOSITORY_PACKAGE = "org.example.repository.";
+    private static final String APPLICATION_PACKAGE = "org.example.";
+    private static final String METRICS_PACKAGE = "org.example.metrics.";
+
+    private final long slowThresholdNanos;
+    private final int maxShapes;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final LongAdder untracked = new LongAdder();
+
+    public QueryMetrics(long slowThresholdMs, int maxShapes) {
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+        this.maxShapes = maxShapes;
+    }
+
+    public void record(String sql, int bindCount, long durationNanos) {
+        ShapeStats stats = shapes.get(sql);
+        if (stats == null) {
+            if (shapes.size() < maxShapes) {
+                stats = shapes.computeIfAbsent(sql, ShapeStats::new);
+            } else {
+                untracked.increment();
+            }
+        }
+        if (stats != null) {
+            stats.latency.record(durationNanos);
+        }
+
+        if (durationNanos >= slowThresholdNanos) {
+            String caller = findCaller();
+            if (stats != null) {
+                stats.slowCount.increment();
+                stats.lastSlowCaller = caller;
+            }
+            log.warn("Slow query: {} ms, {} bind parameters, caller {}: {}",
+                    durationNanos / 1_000_000, bindCount, caller, sql);
+        }
+    }
+
+    /**
+     * @param orderBy "mean", "max" ou "total"
+     */
+    public List<Map<String, Object>> getSlowest(int limit, String orderBy) {
+        Comparator<ShapeStats> comparator = switch (orderBy) {
+            case "max" -> Comparator.comparingDouble(s -> s.latency.getMaxMillis());
+            case "total" -> Comparator.comparingDouble(s -> s.latency.getSumMillis());
+            default -> Comparator.comparingDouble(s -> s.latency.getMeanMillis());
+        };
+
+        List<ShapeStats> sorted = new ArrayList<>(shapes.values());
+        sorted.sort(comparator.reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ShapeStats stats : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sql", stats.sql);
+            map.putAll(stats.latency.toMap());
+            map.put("totalMs", Math.round(stats.latency.getSumMillis() * 1000.0) / 1000.0);
+            map.put("slowCount", stats.slowCount.sum());
+            map.put("lastSlowCaller", stats.lastSlowCaller);
+            result.add(map);
+        }
+        return result;
+    }
+
+    public long getTrackedShapes() {
+        return shapes.size();
+    }
+
+    public long getUntracked() {
+        return untracked.sum();
+    }
+
+    public void reset() {
+        shapes.clear();
+        untracked.reset();
+    }
+
+    /**
+     * Méthode de repository (proxy Spring Data) à l'origine de la requête, sinon première classe
+     * applicative de la pile.
+     */
+    private static String findCaller() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> {
+            String fallback = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                Optional<Class<?>> repository = repositoryInterface(type);
+                if (repository.isPresent()) {
+                    return repository.get().getSimpleName() + "." + frame.getMethodName();
+                }
+                String name = type.getName();
+                if (fallback == null && name.startsWith(APPLICATION_PACKAGE) && !name.startsWith(METRICS_PACKAGE)) {
+                    fallback = type.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return fallback != null ? fallback : "unknown";
+        });
+    }
+
+    private static Optional<Class<?>> repositoryInterface(Class<?> type) {
+        if (type.getName().startsWith(REPOSITORY_PACKAGE)) {
+            return Optional.of(type);
+        }
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith(REPOSITORY_PACKAGE)) {
+                    return Optional.of(candidate);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static class ShapeStats {
+
+        private final String sql;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder slowCount = new LongAdder();
+        private volatile String lastSlowCaller;
+
+        ShapeStats(String sql) {
+            this.sql = sql;
+        }
+    }
+}
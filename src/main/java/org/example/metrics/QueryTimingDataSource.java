@@ -0,0 +1,172 @@
+package org.example.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource qui chronomètre chaque exécution JDBC (Statement / PreparedStatement) et la
+ * transmet à {@link QueryMetrics}. Les connexions et statements sont enveloppés par des proxys
+ * JDK : aucun texte SQL n'est formaté ni écrit sur la sortie standard.
+ */
+public class QueryTimingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"
+    );
+
+    private final QueryMetrics queryMetrics;
+
+    public QueryTimingDataSource(DataSource targetDataSource, QueryMetrics queryMetrics) {
+        super(targetDataSource);
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    // Ferme le pool sous-jacent à l'arrêt du contexte
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                QueryTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection)
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object unwrap(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        Class<?> type = (Class<?>) args[0];
+        if ("unwrap".equals(method.getName())) {
+            return type.isInstance(proxy) ? proxy : invoke(target, method, args);
+        }
+        return type.isInstance(proxy) || (Boolean) invoke(target, method, args);
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "unwrap", "isWrapperFor" -> {
+                    return unwrap(proxy, target, method, args);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Timed[" + target + "]";
+                }
+                default -> {
+                    Object result = QueryTimingDataSource.invoke(target, method, args);
+                    if (result instanceof CallableStatement statement) {
+                        return wrapStatement(statement, CallableStatement.class, (String) args[0]);
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return wrapStatement(statement, PreparedStatement.class, (String) args[0]);
+                    }
+                    if (result instanceof Statement statement) {
+                        return wrapStatement(statement, Statement.class, null);
+                    }
+                    return result;
+                }
+            }
+        }
+    }
+
+    private Statement wrapStatement(Statement statement, Class<? extends Statement> type, String sql) {
+        return (Statement) Proxy.newProxyInstance(
+                QueryTimingDataSource.class.getClassLoader(),
+                new Class<?>[]{type},
+                new StatementHandler(statement, sql)
+        );
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+        private int bindCount;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("unwrap".equals(name) || "isWrapperFor".equals(name)) {
+                return unwrap(proxy, target, method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bindCount++;
+            }
+            if ("addBatch".equals(name) && args != null && args.length == 1) {
+                batchSql = (String) args[0];
+            }
+            if (!EXECUTE_METHODS.contains(name)) {
+                return QueryTimingDataSource.invoke(target, method, args);
+            }
+
+            String sql = preparedSql;
+            if (args != null && args.length > 0 && args[0] instanceof String statementSql) {
+                sql = statementSql;
+            } else if (sql == null) {
+                sql = batchSql;
+            }
+
+            long start = System.nanoTime();
+            try {
+                return QueryTimingDataSource.invoke(target, method, args);
+            } finally {
+                if (sql != null) {
+                    queryMetrics.record(sql, bindCount, System.nanoTime() - start);
+                }
+                bindCount = 0;
+            }
+        }
+    }
+}
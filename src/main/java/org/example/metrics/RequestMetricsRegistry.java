@@ -0,0 +1,52 @@
+package org.example.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs et histogrammes de latence par route (méthode HTTP + modèle d'URL, ex. "GET /api/users/{id}").
+ */
+public class RequestMetricsRegistry {
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+
+    public void record(String method, String route, int status, long durationNanos) {
+        RouteMetrics metrics = routes.computeIfAbsent(method + " " + route, key -> new RouteMetrics(method, route));
+        metrics.latency.record(durationNanos);
+        metrics.statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    public Map<String, RouteMetrics> getRoutes() {
+        return routes;
+    }
+
+    public static class RouteMetrics {
+
+        private final String method;
+        private final String route;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+        RouteMetrics(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public Map<Integer, LongAdder> getStatusCounts() {
+            return statusCounts;
+        }
+    }
+}
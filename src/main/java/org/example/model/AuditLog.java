@@ -0,0 +1,71 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import org.example.model.enums.AuditAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrée du journal d'audit. Les lignes sont insérées par lots JDBC (AuditTrail), jamais via JPA :
+ * l'entité ne sert qu'à la lecture.
+ */
+@Entity
+@Table(name = "audit_log")
+public class AuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private AuditAction action;
+
+    // Utilisateur à l'origine de l'action (null : anonyme, ex. connexion échouée)
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    // Utilisateur concerné
+    @Column(name = "target_id")
+    private Long targetId;
+
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    @Column(length = 500)
+    private String details;
+
+    public AuditLog() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+
+    public AuditAction getAction() {
+        return action;
+    }
+
+    public Long getActorId() {
+        return actorId;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+}
@@ -9,8 +9,10 @@ import java.time.LocalDateTime;
 @Table(name = "users")
 public class User {
 
+    // Séquence + optimiseur pooled : Hibernate réserve 50 ids par appel et peut regrouper les INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -38,6 +40,11 @@ public class User {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt; // Pour suppression logique
 
+    // Verrouillage optimiste : UPDATE ... WHERE id = ? AND version = ?, aucun verrou tenu entre lecture et écriture
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Constructeurs
     public User() {
     }
@@ -135,6 +142,10 @@ public class User {
         this.deletedAt = deletedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public String toString() {
         return "User{" +
@@ -0,0 +1,86 @@
+package org.example.model;
+
+import jakarta.persistence.*;
+import org.example.model.enums.Role;
+import org.example.model.enums.UserStatus;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Compteur d'utilisateurs pour un couple (rôle, état). Chaque couple est réparti sur plusieurs lignes
+ * ("slot") : les transactions concurrentes incrémentent des lignes différentes au lieu de se bloquer
+ * sur un verrou unique. La valeur d'un couple est la somme de ses slots.
+ */
+@Entity
+@Table(name = "user_stats")
+@IdClass(UserStat.Key.class)
+public class UserStat {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Role role;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private UserStatus status;
+
+    @Id
+    private short slot;
+
+    @Column(name = "user_count", nullable = false)
+    private long userCount;
+
+    public UserStat() {
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public UserStatus getStatus() {
+        return status;
+    }
+
+    public short getSlot() {
+        return slot;
+    }
+
+    public long getUserCount() {
+        return userCount;
+    }
+
+    public static class Key implements Serializable {
+
+        private Role role;
+        private UserStatus status;
+        private short slot;
+
+        public Key() {
+        }
+
+        public Key(Role role, UserStatus status, short slot) {
+            this.role = role;
+            this.status = status;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return slot == key.slot && role == key.role && status == key.status;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(role, status, slot);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.model.enums;
+
+public enum AuditAction {
+    LOGIN,
+    LOGIN_FAILED,
+    LOGOUT,
+    USER_CREATED,
+    USER_UPDATED,
+    USER_SOFT_DELETED,
+    USER_HARD_DELETED
+}
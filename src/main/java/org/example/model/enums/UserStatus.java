@@ -0,0 +1,19 @@
+package org.example.model.enums;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'un utilisateur tel que compté par les statistiques : supprimé (logiquement), sinon actif ou inactif.
+ */
+public enum UserStatus {
+    ACTIVE,
+    INACTIVE,
+    DELETED;
+
+    public static UserStatus of(Boolean actif, LocalDateTime deletedAt) {
+        if (deletedAt != null) {
+            return DELETED;
+        }
+        return Boolean.TRUE.equals(actif) ? ACTIVE : INACTIVE;
+    }
+}
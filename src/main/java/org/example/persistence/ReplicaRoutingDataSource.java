@@ -0,0 +1,232 @@
+package org.example.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envoie les transactions read-only vers les réplicas (tour à tour, seulement ceux en bonne santé) et
+ * tout le reste vers le primaire.
+ *
+ * Doit être enveloppée dans une LazyConnectionDataSourceProxy : la connexion n'est obtenue qu'à la
+ * première requête SQL, une fois le caractère read-only de la transaction connu.
+ *
+ * Un réplica est écarté s'il ne répond pas ou si son retard dépasse db.replicas.max-lag-ms (mesuré tous
+ * les db.replicas.health-check-interval-ms). Les lectures restent sur le primaire si aucun réplica n'est
+ * disponible, après une écriture dans la même requête, ou si le client est épinglé (RoutingContext).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    // Retard de rejeu en ms ; 0 si tout le WAL reçu est rejoué (un primaire inactif ne fait pas "vieillir"
+    // le réplica) ou si le serveur n'est pas un standby
+    private static final String LAG_SQL = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS bigint) END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder readWriteTransactions = new LongAdder();
+    private final LongAdder primaryReadsPinned = new LongAdder();
+    private final LongAdder primaryReadsFallback = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            this.replicas.add(new Replica(name, dataSource));
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    // Sans effet de bord : AbstractRoutingDataSource peut l'appeler plusieurs fois pour une même connexion
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route(false);
+        return route.replica() != null ? route.replica().name : PRIMARY;
+    }
+
+    // Compteurs et marquage "a écrit" une seule fois par connexion obtenue.
+    // Un réplica qui refuse une connexion entre deux vérifications est écarté et la lecture part sur le primaire
+    @Override
+    public Connection getConnection() throws SQLException {
+        Route route = route(true);
+        switch (route.reason()) {
+            case WRITE -> {
+                readWriteTransactions.increment();
+                RoutingContext.markWritten();
+            }
+            case PINNED -> primaryReadsPinned.increment();
+            case NO_HEALTHY_REPLICA -> primaryReadsFallback.increment();
+            case REPLICA -> route.replica().reads.increment();
+            default -> {
+            }
+        }
+        if (route.replica() == null) {
+            return primary.getConnection();
+        }
+        try {
+            return route.replica().dataSource.getConnection();
+        } catch (SQLException e) {
+            markDown(route.replica(), e);
+            primaryReadsFallback.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${db.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+                resultSet.next();
+                long lag = resultSet.getLong(1);
+                replica.lagMs = resultSet.wasNull() ? Long.MAX_VALUE : lag;
+                replica.lastError = null;
+                setHealthy(replica, replica.lagMs <= maxLagMs);
+            } catch (SQLException e) {
+                replica.lastError = e.getMessage();
+                setHealthy(replica, false);
+            }
+            replica.checkedAt = LocalDateTime.now();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("readWriteTransactions", readWriteTransactions.sum());
+        stats.put("primaryReadsPinned", primaryReadsPinned.sum());
+        stats.put("primaryReadsFallback", primaryReadsFallback.sum());
+
+        List<Map<String, Object>> replicaStats = new ArrayList<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", replica.name);
+            entry.put("healthy", replica.healthy);
+            entry.put("lagMs", replica.lagMs == Long.MAX_VALUE ? null : replica.lagMs);
+            entry.put("reads", replica.reads.sum());
+            entry.put("checkedAt", replica.checkedAt != null ? replica.checkedAt.toString() : null);
+            entry.put("lastError", replica.lastError);
+            replicaStats.add(entry);
+        }
+        stats.put("replicas", replicaStats);
+        return stats;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    // advance : avance le tour de rôle des réplicas (false pour une simple consultation)
+    private Route route(boolean advance) {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return TransactionSynchronizationManager.isActualTransactionActive() ? Route.WRITE : Route.PRIMARY;
+        }
+        if (replicas.isEmpty()) {
+            return Route.PRIMARY;
+        }
+
+        RoutingContext context = RoutingContext.current();
+        if (RoutingContext.isPrimaryForced() ||
+                (context != null && (context.isPinnedToPrimary() || context.hasWritten()))) {
+            return Route.PINNED;
+        }
+
+        Replica replica = nextHealthyReplica(advance);
+        return replica != null ? new Route(Reason.REPLICA, replica) : Route.NO_HEALTHY_REPLICA;
+    }
+
+    private Replica nextHealthyReplica(boolean advance) {
+        int count = replicas.size();
+        int start = Math.floorMod(advance ? next.getAndIncrement() : next.get(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void markDown(Replica replica, SQLException e) {
+        replica.lastError = e.getMessage();
+        setHealthy(replica, false);
+    }
+
+    private void setHealthy(Replica replica, boolean healthy) {
+        if (replica.healthy != healthy) {
+            if (healthy) {
+                log.info("Replica {} is back in rotation (lag {} ms)", replica.name, replica.lagMs);
+            } else {
+                log.warn("Replica {} removed from rotation: {}", replica.name,
+                        replica.lastError != null ? replica.lastError : "lag " + replica.lagMs + " ms");
+            }
+        }
+        replica.healthy = healthy;
+    }
+
+    private enum Reason { PRIMARY, WRITE, PINNED, NO_HEALTHY_REPLICA, REPLICA }
+
+    // Destination d'une connexion et raison du choix (compteurs de getStats)
+    private record Route(Reason reason, Replica replica) {
+
+        private static final Route PRIMARY = new Route(Reason.PRIMARY, null);
+        private static final Route WRITE = new Route(Reason.WRITE, null);
+        private static final Route PINNED = new Route(Reason.PINNED, null);
+        private static final Route NO_HEALTHY_REPLICA = new Route(Reason.NO_HEALTHY_REPLICA, null);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder reads = new LongAdder();
+
+        // Hors rotation jusqu'à la première vérification
+        private volatile boolean healthy;
+        private volatile long lagMs = Long.MAX_VALUE;
+        private volatile LocalDateTime checkedAt;
+        private volatile String lastError;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
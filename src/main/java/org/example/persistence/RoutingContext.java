@@ -0,0 +1,103 @@
+package org.example.persistence;
+
+import java.util.function.Supplier;
+
+/**
+ * État de routage d'une requête HTTP, lié au thread qui la traite (et transmis aux threads des
+ * traitements asynchrones) : la requête est-elle épinglée au primaire, a-t-elle déjà écrit ?
+ *
+ * Hors requête (tâches planifiées, démarrage), il n'y a pas de contexte : seul le caractère read-only
+ * de la transaction compte.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<RoutingContext> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final boolean pinnedToPrimary;
+    private volatile boolean written;
+
+    private RoutingContext(boolean pinnedToPrimary) {
+        this.pinnedToPrimary = pinnedToPrimary;
+    }
+
+    /**
+     * @param pinnedToPrimary le client a écrit récemment : ses lectures restent sur le primaire
+     */
+    public static RoutingContext open(boolean pinnedToPrimary) {
+        RoutingContext context = new RoutingContext(pinnedToPrimary);
+        CURRENT.set(context);
+        return context;
+    }
+
+    public static RoutingContext current() {
+        return CURRENT.get();
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Exécute action avec le contexte donné (capturé sur un autre thread), puis restaure le précédent.
+     */
+    public static <T> T callWith(RoutingContext context, Supplier<T> action) {
+        RoutingContext previous = CURRENT.get();
+        CURRENT.set(context);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    // TaskDecorator des traitements asynchrones MVC : capture le contexte du thread qui soumet
+    public static Runnable wrap(Runnable task) {
+        RoutingContext context = CURRENT.get();
+        return () -> callWith(context, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Lectures de action sur le primaire, quelle que soit la transaction. La connexion étant obtenue à la
+     * première requête SQL, action doit contenir la première requête de la transaction.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                FORCE_PRIMARY.set(previous);
+            } else {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    public boolean isPinnedToPrimary() {
+        return pinnedToPrimary;
+    }
+
+    public boolean hasWritten() {
+        return written;
+    }
+
+    static boolean isPrimaryForced() {
+        return FORCE_PRIMARY.get() != null;
+    }
+
+    static void markWritten() {
+        RoutingContext context = CURRENT.get();
+        if (context != null) {
+            context.written = true;
+        }
+    }
+}
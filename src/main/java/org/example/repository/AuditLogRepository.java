@@ -0,0 +1,10 @@
+package org.example.repository;
+
+import org.example.model.AuditLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+// Lecture seule : les écritures passent par AuditTrail (INSERT JDBC par lots)
+@Repository
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+}
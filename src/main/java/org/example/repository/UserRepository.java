@@ -1,24 +1,194 @@
 package org.example.repository;
 
+import org.example.dto.UserResponseDTO;
 import org.example.model.User;
+import jakarta.persistence.QueryHint;
 import org.example.model.enums.Role;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Projection : seules les colonnes de UserResponseDTO sont lues (pas de mot_de_passe) et les
+    // résultats ne sont pas des entités gérées (ni instantané pour le dirty checking, ni contexte à vider)
+    String SELECT_RESPONSE = "SELECT new org.example.dto.UserResponseDTO(" +
+            "u.id, u.nom, u.email, u.role, u.actif, u.createdAt, u.updatedAt, u.version) FROM User u ";
+
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
     List<User> findByRole(Role role);
-    List<User> findByNomContainingIgnoreCase(String nom);
     @Query("SELECT u FROM User u WHERE u.deletedAt IS NULL")
     List<User> findAllActive();
     @Query("SELECT u FROM User u WHERE u.id = :id AND u.deletedAt IS NULL")
     Optional<User> findActiveById(@Param("id") Long id);
-}
\ No newline at end of file
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL")
+    List<UserResponseDTO> findAllActiveResponses();
+
+    @Query(SELECT_RESPONSE + "WHERE u.role = :role")
+    List<UserResponseDTO> findResponsesByRole(@Param("role") Role role);
+
+    @Query(SELECT_RESPONSE + "WHERE u.id = :id AND u.deletedAt IS NULL")
+    Optional<UserResponseDTO> findActiveResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + "WHERE u.email = :email AND u.deletedAt IS NULL")
+    Optional<UserResponseDTO> findActiveResponseByEmail(@Param("email") String email);
+
+    @Query(SELECT_RESPONSE + "WHERE u.id IN :ids AND u.deletedAt IS NULL")
+    List<UserResponseDTO> findActiveResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Mêmes lignes que le mode curseur (utilisateurs non supprimés) : le mode de pagination ne change pas le jeu
+    @Query(value = SELECT_RESPONSE + "WHERE u.deletedAt IS NULL",
+            countQuery = "SELECT count(u) FROM User u WHERE u.deletedAt IS NULL")
+    Page<UserResponseDTO> findActiveResponses(Pageable pageable);
+
+    // Comptage réel par rôle et état (réconciliation de user_stats). Chaque ligne : [role, status, count]
+    @Query(value = "SELECT u.role, " +
+            "CASE WHEN u.deleted_at IS NOT NULL THEN 'DELETED' WHEN u.actif THEN 'ACTIVE' ELSE 'INACTIVE' END, " +
+            "count(*) " +
+            "FROM users u GROUP BY 1, 2", nativeQuery = true)
+    List<Object[]> countByRoleAndStatus();
+
+    // Purge par lots (idx_users_deleted_at_id) : lignes supprimées avant :cutoff et après la clé
+    // (:afterDeletedAt, :afterId). SKIP LOCKED : une ligne verrouillée ailleurs est laissée au passage suivant.
+    // Chaque ligne : [id, role, deleted_at]
+    String PURGE_BATCH = "WITH batch AS (" +
+            "SELECT id FROM users " +
+            "WHERE deleted_at IS NOT NULL AND deleted_at < :cutoff " +
+            "AND (deleted_at, id) > (:afterDeletedAt, :afterId) " +
+            "ORDER BY deleted_at, id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED) ";
+
+    @Query(value = PURGE_BATCH +
+            "DELETE FROM users u USING batch WHERE u.id = batch.id " +
+            "RETURNING u.id, u.role, u.deleted_at", nativeQuery = true)
+    List<Object[]> deleteDeletedBatch(@Param("cutoff") LocalDateTime cutoff,
+                                      @Param("afterDeletedAt") LocalDateTime afterDeletedAt,
+                                      @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+
+    @Query(value = PURGE_BATCH + ", moved AS (" +
+            "DELETE FROM users u USING batch WHERE u.id = batch.id RETURNING u.*) " +
+            "INSERT INTO users_archive (id, nom, email, role, actif, created_at, updated_at, deleted_at, version) " +
+            "SELECT id, nom, email, role, actif, created_at, updated_at, deleted_at, version FROM moved " +
+            "RETURNING id, role, deleted_at", nativeQuery = true)
+    List<Object[]> archiveDeletedBatch(@Param("cutoff") LocalDateTime cutoff,
+                                       @Param("afterDeletedAt") LocalDateTime afterDeletedAt,
+                                       @Param("afterId") long afterId,
+                                       @Param("limit") int limit);
+
+    // Page sans COUNT(*) : Spring Data lit size + 1 lignes pour déterminer hasNext
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL")
+    Slice<UserResponseDTO> findActiveResponsesBy(Pageable pageable);
+
+    // Nombre de lignes estimé par les statistiques PostgreSQL (ANALYZE / autovacuum), -1 si jamais analysée
+    @Query(value = "SELECT CAST(c.reltuples AS bigint) FROM pg_class c WHERE c.oid = CAST('users' AS regclass)",
+            nativeQuery = true)
+    long estimateRowCount();
+
+    // Lecture par lots côté JDBC (curseur PostgreSQL) : à consommer dans une transaction.
+    // Les DTO ne sont pas attachés au contexte de persistance : mémoire constante sans detach()
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL ORDER BY u.id")
+    Stream<UserResponseDTO> streamAllActiveResponses();
+
+    // Tous les emails, supprimés logiquement compris (chargement du filtre EmailBloomFilter)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    // Recherche classée par similarité (index trigrammes partiels idx_users_nom_trgm / idx_users_email_trgm).
+    // Chaque ligne : [id, score]
+    @Query(value = "SELECT u.id, GREATEST(similarity(u.nom, :q), similarity(u.email, :q)) AS score " +
+            "FROM users u " +
+            "WHERE u.deleted_at IS NULL AND (u.nom ILIKE :pattern OR u.email ILIKE :pattern) " +
+            "ORDER BY score DESC, u.id ASC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> searchRanked(@Param("q") String q,
+                                @Param("pattern") String pattern,
+                                @Param("limit") int limit);
+
+    @Query(value = "SELECT s.id, s.score FROM (" +
+            "SELECT u.id, GREATEST(similarity(u.nom, :q), similarity(u.email, :q)) AS score " +
+            "FROM users u " +
+            "WHERE u.deleted_at IS NULL AND (u.nom ILIKE :pattern OR u.email ILIKE :pattern)" +
+            ") s " +
+            "WHERE s.score < CAST(:score AS real) OR (s.score = CAST(:score AS real) AND s.id > :id) " +
+            "ORDER BY s.score DESC, s.id ASC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> searchRankedAfter(@Param("q") String q,
+                                     @Param("pattern") String pattern,
+                                     @Param("score") float score,
+                                     @Param("id") long id,
+                                     @Param("limit") int limit);
+
+    // Pagination par clé (seek) des utilisateurs actifs : première page triée par le Pageable, puis une requête
+    // par clé et sens de la forme WHERE (clé, id) > (:key, :id) ORDER BY clé, id (comparaison de lignes),
+    // lue comme une seule plage de l'index partiel idx_users_active_<clé>_id : la page N coûte autant que
+    // la page 1. Le Pageable ne porte que la limite (taille + 1 pour savoir s'il y a une suite).
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL")
+    List<UserResponseDTO> findActiveFirstPage(Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND u.id > :id ORDER BY u.id ASC")
+    List<UserResponseDTO> findActiveAfterId(@Param("id") long id, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND u.id < :id ORDER BY u.id DESC")
+    List<UserResponseDTO> findActiveBeforeId(@Param("id") long id, Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND (u.nom, u.id) > (:key, :id) " +
+            "ORDER BY u.nom ASC, u.id ASC")
+    List<UserResponseDTO> findActiveAfterNom(@Param("key") String key, @Param("id") long id,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND (u.nom, u.id) < (:key, :id) " +
+            "ORDER BY u.nom DESC, u.id DESC")
+    List<UserResponseDTO> findActiveBeforeNom(@Param("key") String key, @Param("id") long id,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND (u.email, u.id) > (:key, :id) " +
+            "ORDER BY u.email ASC, u.id ASC")
+    List<UserResponseDTO> findActiveAfterEmail(@Param("key") String key, @Param("id") long id,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND (u.email, u.id) < (:key, :id) " +
+            "ORDER BY u.email DESC, u.id DESC")
+    List<UserResponseDTO> findActiveBeforeEmail(@Param("key") String key, @Param("id") long id,
+            Pageable pageable);
+
+    // Rôle : Hibernate 6.4 ne sait pas typer un enum dans une comparaison de lignes, d'où une requête
+    // native qui ne lit que idx_users_active_role_id (ids seuls, DTO rechargés par clé primaire)
+    @Query(value = "SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.role, u.id) > (:key, :id) " +
+            "ORDER BY u.role ASC, u.id ASC LIMIT :limit", nativeQuery = true)
+    List<Long> findActiveIdsAfterRole(@Param("key") String key, @Param("id") long id, @Param("limit") int limit);
+
+    @Query(value = "SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.role, u.id) < (:key, :id) " +
+            "ORDER BY u.role DESC, u.id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findActiveIdsBeforeRole(@Param("key") String key, @Param("id") long id, @Param("limit") int limit);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND (u.createdAt, u.id) > (:key, :id) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    List<UserResponseDTO> findActiveAfterCreatedAt(@Param("key") LocalDateTime key, @Param("id") long id,
+            Pageable pageable);
+
+    @Query(SELECT_RESPONSE + "WHERE u.deletedAt IS NULL AND (u.createdAt, u.id) < (:key, :id) " +
+            "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserResponseDTO> findActiveBeforeCreatedAt(@Param("key") LocalDateTime key, @Param("id") long id,
+            Pageable pageable);
+}
@@ -0,0 +1,49 @@
+package org.example.repository;
+
+import org.example.dto.UserCountDTO;
+import org.example.model.UserStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStat, UserStat.Key> {
+
+    // Un seul aller-retour, que la ligne du slot existe déjà ou non
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (role, status, slot, user_count) " +
+            "VALUES (:role, :status, :slot, :delta) " +
+            "ON CONFLICT (role, status, slot) DO UPDATE SET user_count = user_stats.user_count + EXCLUDED.user_count",
+            nativeQuery = true)
+    void increment(@Param("role") String role,
+                   @Param("status") String status,
+                   @Param("slot") int slot,
+                   @Param("delta") long delta);
+
+    // Slot de la version des listes, créé au premier incrément
+    @Modifying
+    @Query(value = "INSERT INTO user_list_version (slot, version) VALUES (:slot, 1) " +
+            "ON CONFLICT (slot) DO UPDATE SET version = user_list_version.version + 1",
+            nativeQuery = true)
+    void incrementListVersion(@Param("slot") int slot);
+
+    @Query(value = "SELECT COALESCE(sum(version), 0) FROM user_list_version", nativeQuery = true)
+    long sumListVersion();
+
+    @Query("SELECT new org.example.dto.UserCountDTO(s.role, s.status, sum(s.userCount)) FROM UserStat s " +
+            "GROUP BY s.role, s.status")
+    List<UserCountDTO> sumCounters();
+
+    // Bloque les incréments concurrents (ROW EXCLUSIVE) jusqu'à la fin de la transaction, pas les lectures
+    @Modifying
+    @Query(value = "LOCK TABLE user_stats IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForReconciliation();
+
+    // Équivalent de SET LOCAL lock_timeout, avec une valeur paramétrable (en millisecondes)
+    @Query(value = "SELECT set_config('lock_timeout', :timeoutMs, true)", nativeQuery = true)
+    String setLocalLockTimeout(@Param("timeoutMs") String timeoutMs);
+}
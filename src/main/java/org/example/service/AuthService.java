@@ -1,12 +1,16 @@
 package org.example.service;
 
+import org.example.audit.AuditTrail;
 import org.example.dto.CurrentUserDTO;
 import org.example.dto.LoginRequestDTO;
+import org.example.dto.UserResponseDTO;
+import org.example.exception.ServiceUnavailableException;
 import org.example.model.User;
+import org.example.model.enums.AuditAction;
 import org.example.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -14,15 +18,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
+    private final AuditTrail auditTrail;
 
     @Autowired
-    public AuthService(UserRepository userRepository) {
+    public AuthService(UserRepository userRepository, UserCache userCache,
+                       PasswordHashingService passwordHashingService, AuditTrail auditTrail) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.userCache = userCache;
+        this.passwordHashingService = passwordHashingService;
+        this.auditTrail = auditTrail;
     }
 
-    public User login(LoginRequestDTO loginRequest) {
+    // Pas de transaction englobante : la connexion JDBC n'est pas retenue pendant le calcul BCrypt
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public User login(LoginRequestDTO loginRequest, String clientIp) {
+        User user;
+        try {
+            user = authenticate(loginRequest);
+        } catch (ServiceUnavailableException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            auditTrail.record(AuditAction.LOGIN_FAILED, null, null, clientIp,
+                    "email=" + loginRequest.getEmail() + ", reason=" + e.getMessage());
+            throw e;
+        }
+        auditTrail.record(AuditAction.LOGIN, user.getId(), user.getId(), clientIp, null);
+        return user;
+    }
+
+    private User authenticate(LoginRequestDTO loginRequest) {
         if (loginRequest.getEmail() == null || loginRequest.getEmail().trim().isEmpty()) {
             throw new IllegalArgumentException("Email is required");
         }
@@ -42,38 +68,34 @@ public class AuthService {
             throw new RuntimeException("User account is inactive");
         }
 
-        if (!passwordEncoder.matches(loginRequest.getMotDePasse(), user.getMotDePasse())) {
+        if (!passwordHashingService.matches(loginRequest.getMotDePasse(), user.getMotDePasse())) {
             throw new RuntimeException("Invalid email or password");
         }
 
         return user;
     }
 
+    // Même chargement par projection que UserService.getUserById : les deux remplissent le même cache.
+    // Compte inconnu ou supprimé : même réponse
     @Transactional(readOnly = true)
     public CurrentUserDTO getCurrentUserById(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (user.getDeletedAt() != null) {
-            throw new RuntimeException("User account has been deleted");
+        UserResponseDTO user = userCache.getById(userId, key -> userRepository.findActiveResponseById(key)
+                .orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found");
         }
-
-        CurrentUserDTO dto = new CurrentUserDTO();
-        dto.setId(user.getId());
-        dto.setNom(user.getNom());
-        dto.setEmail(user.getEmail());
-        dto.setRole(user.getRole().name());
-        dto.setActif(user.getActif());
-
-        return dto;
+        return new CurrentUserDTO(
+                user.getId(),
+                user.getNom(),
+                user.getEmail(),
+                user.getRole().name(),
+                user.getActif()
+        );
     }
 
-    public void logout(Long userId) {
-        // Example:
-        // AuditLog log = new AuditLog();
-        // log.setUserId(userId);
-        // log.setAction("LOGOUT");
-        // log.setTimestamp(LocalDateTime.now());
-        // auditLogRepository.save(log);
+    // Rien à écrire en base dans la requête : pas de transaction, l'événement part directement dans la file
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void logout(Long userId, String clientIp) {
+        auditTrail.record(AuditAction.LOGOUT, userId, userId, clientIp, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,268 @@
+package org.example.service;
+
+import org.example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Filtre de Bloom des emails existants (normalisés : trim + minuscules), y compris ceux des utilisateurs
+ * supprimés logiquement puisque la contrainte d'unicité les couvre aussi.
+ *
+ * Une réponse négative est certaine : la vérification existsByEmail est alors évitée. Une réponse positive
+ * peut être fausse (taux visé : user.email-filter.false-positive-rate) et passe par la base. Tant que le
+ * chargement initial n'est pas terminé, toutes les réponses sont positives.
+ *
+ * Les emails écrits par une autre instance ou directement en SQL n'y figurent qu'après la reconstruction
+ * suivante : la contrainte users_email_key reste le garde-fou final.
+ */
+@Service
+public class EmailBloomFilter implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile Bits current;
+    // Filtre en cours de reconstruction : reçoit aussi les emails écrits pendant le chargement
+    private volatile Bits building;
+    private volatile boolean ready;
+
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder confirmedPositives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    public EmailBloomFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                            @Value("${user.email-filter.enabled:true}") boolean enabled,
+                            @Value("${user.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${user.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = Bits.create(1, falsePositiveRate);
+    }
+
+    // Chargement initial en arrière-plan : le démarrage n'attend pas la lecture de tous les emails
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::rebuild, "email-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * L'email existe-t-il ? Interroge la base (lookup) seulement si le filtre ne peut pas l'exclure.
+     */
+    public boolean exists(String email, Predicate<String> lookup) {
+        if (!mightContain(email)) {
+            return false;
+        }
+        boolean exists = lookup.test(email);
+        if (ready) {
+            (exists ? confirmedPositives : falsePositives).increment();
+        }
+        return exists;
+    }
+
+    public boolean mightContain(String email) {
+        if (!enabled || !ready || email == null) {
+            return true;
+        }
+        if (current.mightContain(normalize(email))) {
+            return true;
+        }
+        definiteNegatives.increment();
+        return false;
+    }
+
+    /**
+     * Ajoute un email écrit dans la transaction courante : tout de suite, puis de nouveau après le commit
+     * pour qu'une reconstruction démarrée entre-temps ne le perde pas.
+     */
+    public void add(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        String normalized = normalize(email);
+        addNow(normalized);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(normalized);
+                }
+            });
+        }
+    }
+
+    /**
+     * Recharge le filtre depuis la table users. Les emails d'utilisateurs supprimés définitivement
+     * disparaissent, et la taille suit le nombre de lignes (statistiques PostgreSQL).
+     */
+    @Scheduled(cron = "${user.email-filter.rebuild-cron:0 0 4 * * *}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Long estimatedRows = transactionTemplate.execute(status -> userRepository.estimateRowCount());
+            long capacity = Math.max(expectedInsertions, estimatedRows != null ? estimatedRows * 5 / 4 : 0);
+
+            Bits next = Bits.create(capacity, falsePositiveRate);
+            building = next;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> next.add(normalize(email)));
+                }
+            });
+            current = next;
+            ready = true;
+            rebuilds.increment();
+
+            log.info("Email filter loaded: {} emails, {} KiB, {} hash functions, in {} ms", next.insertions.sum(),
+                    next.words.length() * 8 / 1024, next.hashes, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Email filter rebuild failed, keeping the previous filter", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Bits bits = current;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("ready", ready);
+        stats.put("insertions", bits.insertions.sum());
+        stats.put("bits", bits.size);
+        stats.put("hashFunctions", bits.hashes);
+        stats.put("memoryBytes", (long) bits.words.length() * Long.BYTES);
+        stats.put("targetFalsePositiveRate", falsePositiveRate);
+        stats.put("estimatedFalsePositiveRate", bits.estimatedFalsePositiveRate());
+
+        long positives = confirmedPositives.sum() + falsePositives.sum();
+        stats.put("definiteNegatives", definiteNegatives.sum());
+        stats.put("confirmedPositives", confirmedPositives.sum());
+        stats.put("falsePositives", falsePositives.sum());
+        stats.put("observedFalsePositiveRate", positives == 0 ? 0 : (double) falsePositives.sum() / positives);
+        stats.put("rebuilds", rebuilds.sum());
+        return stats;
+    }
+
+    private void addNow(String normalized) {
+        current.add(normalized);
+        Bits next = building;
+        if (next != null) {
+            next.add(normalized);
+        }
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Tableau de bits partagé sans verrou. Les k positions sont dérivées de deux hachages 64 bits
+     * (h1 + i * h2, Kirsch–Mitzenmacher).
+     */
+    static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final LongAdder insertions = new LongAdder();
+
+        private Bits(long size, int hashes) {
+            this.words = new AtomicLongArray((int) ((size + 63) / 64));
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        // m = -n ln(p) / ln(2)², k = m / n × ln(2)
+        static Bits create(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+            int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+            return new Bits(m, k);
+        }
+
+        void add(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = ((h1 + i * h2) & Long.MAX_VALUE) % size;
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                if ((words.get(index) & mask) == 0) {
+                    words.getAndAccumulate(index, mask, (word, m) -> word | m);
+                }
+            }
+            insertions.increment();
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = ((h1 + i * h2) & Long.MAX_VALUE) % size;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // (bits à 1 / m)^k : taux réel compte tenu du remplissage
+        double estimatedFalsePositiveRate() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return Math.pow((double) set / size, hashes);
+        }
+
+        // FNV-1a 64 bits sur les caractères, puis mélange (finaliseur de SplitMix64)
+        private static long hash(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.exception.ServiceUnavailableException;
+import org.example.metrics.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exécute les calculs BCrypt sur un pool dédié et borné, pour qu'une rafale de connexions
+ * ne monopolise pas les threads du conteneur servlet. Une file pleine est rejetée
+ * immédiatement (ServiceUnavailableException → HTTP 503).
+ *
+ * Les imports en masse (encodeAll) n'occupent jamais plus de password.hashing.bulk-threads threads,
+ * tous imports confondus : le reste du pool reste disponible pour les connexions.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int bulkThreads;
+    private final Semaphore bulkPermits;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram hashTime = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public PasswordHashingService(@Value("${password.hashing.threads:0}") int threads,
+                                  @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${password.hashing.timeout-ms:5000}") long timeoutMs,
+                                  @Value("${password.hashing.strength:10}") int strength,
+                                  @Value("${password.hashing.bulk-threads:0}") int bulkThreads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // 0 = la moitié du pool ; toujours au moins un thread laissé aux connexions (pool > 1)
+        int bulkLimit = bulkThreads > 0 ? bulkThreads : poolSize / 2;
+        this.bulkThreads = Math.max(1, Math.min(bulkLimit, poolSize - 1));
+        this.bulkPermits = new Semaphore(this.bulkThreads);
+
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hache une liste de mots de passe en parallèle, au plus bulkThreads à la fois (une tâche est
+     * soumise dès qu'une autre se termine). À appeler hors transaction : l'attente peut être longue.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        List<BulkPermit> permits = new ArrayList<>(rawPasswords.size());
+        try {
+            for (String rawPassword : rawPasswords) {
+                BulkPermit permit = acquireBulkPermit();
+                permits.add(permit);
+                futures.add(submit(() -> {
+                    try {
+                        return passwordEncoder.encode(rawPassword);
+                    } finally {
+                        permit.release();
+                    }
+                }));
+            }
+
+            List<String> encoded = new ArrayList<>(rawPasswords.size());
+            for (Future<String> future : futures) {
+                encoded.add(await(future));
+            }
+            return encoded;
+        } catch (RuntimeException e) {
+            // Tâches annulées avant d'avoir démarré : leur place est rendue ici
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+            for (BulkPermit permit : permits) {
+                permit.release();
+            }
+            throw e;
+        }
+    }
+
+    private BulkPermit acquireBulkPermit() {
+        try {
+            bulkPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted");
+        }
+        return new BulkPermit();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        return await(submit(task));
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    hashTime.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Authentication service is busy. Please retry later.");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new ServiceUnavailableException("Authentication service is busy. Please retry later.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("bulkThreads", bulkThreads);
+        stats.put("bulkActive", bulkThreads - bulkPermits.availablePermits());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("queueWait", queueWait.toMap());
+        stats.put("hashTime", hashTime.toMap());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Place d'une tâche d'import dans le pool, rendue une seule fois (fin de la tâche ou annulation)
+    private final class BulkPermit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkPermits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jetons révoqués, partagés entre les nœuds par la table revoked_tokens.
+ *
+ * La vérification d'un jeton ne fait aucun aller-retour : elle consulte la copie locale, complétée
+ * toutes les auth.token.revocation-sync-ms par les seules lignes écrites depuis le passage précédent.
+ * Un jeton révoqué sur un autre nœud reste donc accepté ici pendant au plus cet intervalle.
+ *
+ * Les lignes expirées sont purgées selon auth.token.revocation-purge-cron, par un seul nœud à la fois
+ * (verrou consultatif) ; la copie locale oublie d'elle-même les jetons expirés.
+ *
+ * Une révocation qui n'a pas pu être écrite en base reste au moins connue du nœud qui l'a reçue.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String INSERT_SQL = "INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?) " +
+            "ON CONFLICT DO NOTHING";
+    private static final String LOAD_ALL_SQL = "SELECT jti, expires_at, revoked_at FROM revoked_tokens " +
+            "WHERE expires_at > now()";
+    private static final String LOAD_SINCE_SQL = "SELECT jti, expires_at, revoked_at FROM revoked_tokens " +
+            "WHERE revoked_at > ?";
+    // Les nœuds qui lancent la purge en même temps que celui qui tient le verrou passent leur tour
+    private static final String PURGE_SQL = "WITH purge_lock AS (SELECT pg_try_advisory_xact_lock(?) AS acquired) " +
+            "DELETE FROM revoked_tokens USING purge_lock WHERE purge_lock.acquired AND expires_at < now()";
+    private static final long PURGE_LOCK_KEY = 0x7265766f6b6564L;
+
+    // Une ligne horodatée (début de l'INSERT) peut n'être visible qu'un peu plus tard (commit) : chaque
+    // passage relit cette marge avant la dernière ligne vue
+    private static final long OVERLAP_MS = TimeUnit.SECONDS.toMillis(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    // jti -> expiration en secondes epoch, jusqu'à l'expiration du jeton
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // revoked_at de la dernière ligne lue, null avant le premier chargement
+    private Timestamp lastRevokedAt;
+
+    public TokenRevocationList(@Qualifier("primaryDataSource") DataSource dataSource,
+                               @Value("${auth.token.revocation-enabled:true}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+    }
+
+    public void revoke(String jti, long expiresAtEpochSeconds) {
+        revoked.put(jti, expiresAtEpochSeconds);
+        try {
+            jdbcTemplate.update(INSERT_SQL, jti, Timestamp.from(Instant.ofEpochSecond(expiresAtEpochSeconds)));
+        } catch (DataAccessException e) {
+            log.warn("Token revocation could not be shared with other nodes: {}", e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        return revoked.containsKey(jti);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${auth.token.revocation-sync-ms:5000}")
+    public synchronized void sync() {
+        if (!enabled) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        try {
+            Timestamp[] newest = {lastRevokedAt};
+            Object[] args = lastRevokedAt == null
+                    ? new Object[0]
+                    : new Object[]{new Timestamp(lastRevokedAt.getTime() - OVERLAP_MS)};
+            jdbcTemplate.query(lastRevokedAt == null ? LOAD_ALL_SQL : LOAD_SINCE_SQL, row -> {
+                revoked.put(row.getString(1), row.getTimestamp(2).toInstant().getEpochSecond());
+                Timestamp revokedAt = row.getTimestamp(3);
+                if (newest[0] == null || revokedAt.after(newest[0])) {
+                    newest[0] = revokedAt;
+                }
+            }, args);
+            // Table vide au premier passage : tout sera relu au suivant, sans coût
+            lastRevokedAt = newest[0];
+        } catch (DataAccessException e) {
+            // Copie précédente conservée, relue depuis le même point au prochain passage
+            log.warn("Revoked tokens could not be reloaded: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${auth.token.revocation-purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL, PURGE_LOCK_KEY);
+            if (purged > 0) {
+                log.info("Purged {} expired token revocations", purged);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Expired token revocations could not be purged: {}", e.getMessage());
+        }
+    }
+}
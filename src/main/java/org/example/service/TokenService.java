@@ -0,0 +1,175 @@
+package org.example.service;
+
+import org.example.dto.CurrentUserDTO;
+import org.example.model.User;
+import org.example.util.CursorCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Jetons d'accès signés (HMAC-SHA256) : "kid.payload.signature".
+ *
+ * Le payload contient l'identité de l'utilisateur et la date d'expiration : aucun état serveur
+ * n'est nécessaire pour les vérifier. Plusieurs clés peuvent être déclarées (rotation) ;
+ * seule la clé active signe, toutes les clés connues vérifient.
+ * Les révocations sont partagées entre les nœuds (TokenRevocationList) et conservées jusqu'à l'expiration.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+    private final String activeKeyId;
+    private final long ttlSeconds;
+    private final boolean revocationEnabled;
+    private final TokenRevocationList revocationList;
+
+    public TokenService(@Value("${auth.token.keys:}") String keysProperty,
+                        @Value("${auth.token.active-key:}") String activeKey,
+                        @Value("${auth.token.ttl-seconds:3600}") long ttlSeconds,
+                        @Value("${auth.token.revocation-enabled:true}") boolean revocationEnabled,
+                        TokenRevocationList revocationList) {
+        for (String entry : keysProperty.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid auth.token.keys entry: expected kid:base64Secret");
+            }
+            keys.put(parts[0], new SecretKeySpec(Base64.getDecoder().decode(parts[1]), ALGORITHM));
+        }
+
+        if (keys.isEmpty()) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            keys.put("generated", new SecretKeySpec(secret, ALGORITHM));
+            log.warn("No auth.token.keys configured: using a random key, tokens will not survive a restart " +
+                    "nor be accepted by other nodes");
+        }
+
+        this.activeKeyId = activeKey == null || activeKey.isBlank() ? keys.keySet().iterator().next() : activeKey;
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Unknown auth.token.active-key: " + activeKeyId);
+        }
+        this.ttlSeconds = ttlSeconds;
+        this.revocationEnabled = revocationEnabled;
+        this.revocationList = revocationList;
+    }
+
+    public String issue(User user) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttlSeconds;
+        String payload = CursorCodec.encode(List.of(
+                String.valueOf(user.getId()),
+                user.getEmail(),
+                user.getNom(),
+                user.getRole().name(),
+                String.valueOf(expiresAt),
+                UUID.randomUUID().toString()
+        ));
+        String signingInput = activeKeyId + "." + payload;
+        return signingInput + "." + sign(activeKeyId, signingInput);
+    }
+
+    /**
+     * @return l'utilisateur porté par le jeton, ou une RuntimeException si le jeton est invalide,
+     * expiré ou révoqué
+     */
+    public CurrentUserDTO verify(String token) {
+        List<String> claims = parse(token);
+
+        CurrentUserDTO user = new CurrentUserDTO();
+        user.setId(Long.valueOf(claims.get(0)));
+        user.setEmail(claims.get(1));
+        user.setNom(claims.get(2));
+        user.setRole(claims.get(3));
+        user.setActif(true);
+        return user;
+    }
+
+    /**
+     * Révoque le jeton jusqu'à son expiration. Sans effet sur un jeton invalide, déjà expiré ou
+     * déjà révoqué : il n'est de toute façon plus accepté.
+     */
+    public void revoke(String token) {
+        if (!revocationEnabled) {
+            return;
+        }
+        List<String> claims = parseSigned(token);
+        if (claims == null) {
+            return;
+        }
+        long expiresAt = Long.parseLong(claims.get(4));
+        if (expiresAt >= System.currentTimeMillis() / 1000 && !revocationList.isRevoked(claims.get(5))) {
+            revocationList.revoke(claims.get(5), expiresAt);
+        }
+    }
+
+    private List<String> parse(String token) {
+        List<String> claims = parseSigned(token);
+        if (claims == null) {
+            throw new RuntimeException("Invalid token");
+        }
+
+        if (Long.parseLong(claims.get(4)) < System.currentTimeMillis() / 1000) {
+            throw new RuntimeException("Token expired. Please login.");
+        }
+        if (revocationEnabled && revocationList.isRevoked(claims.get(5))) {
+            throw new RuntimeException("Token revoked. Please login.");
+        }
+        return claims;
+    }
+
+    // Revendications d'un jeton correctement signé, sans contrôle d'expiration ni de révocation ; null sinon
+    private List<String> parseSigned(String token) {
+        String[] parts = token == null ? new String[0] : token.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+
+        String keyId = parts[0];
+        if (!keys.containsKey(keyId)) {
+            return null;
+        }
+
+        byte[] expected = sign(keyId, keyId + "." + parts[1]).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, parts[2].getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+
+        try {
+            List<String> claims = CursorCodec.decode(parts[1], 6);
+            Long.parseLong(claims.get(4));
+            return claims;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String sign(String keyId, String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(keys.get(keyId));
+            return ENCODER.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.dto.UserResponseDTO;
+import org.example.persistence.RoutingContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache borné (taille + TTL) des utilisateurs actifs, indexé par id et par email.
+ *
+ * Les écritures invalident les entrées immédiatement puis une seconde fois après le commit :
+ * une lecture concurrente qui aurait rechargé l'ancienne version entre les deux est ainsi écartée.
+ * Un chargement en cours bloque l'invalidation de la même clé jusqu'à sa fin.
+ *
+ * Les chargements lisent le primaire : une valeur lue sur un réplica en retard, juste après une
+ * invalidation, resterait en cache jusqu'à l'expiration.
+ */
+@Service
+public class UserCache {
+
+    private final Cache<Long, UserResponseDTO> byId;
+    private final Cache<String, UserResponseDTO> byEmail;
+
+    public UserCache(@Value("${user.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param loader retourne null si l'utilisateur n'existe pas (rien n'est alors mis en cache)
+     */
+    public UserResponseDTO getById(Long id, Function<Long, UserResponseDTO> loader) {
+        return byId.get(id, key -> RoutingContext.onPrimary(() -> loader.apply(key)));
+    }
+
+    public UserResponseDTO getByEmail(String email, Function<String, UserResponseDTO> loader) {
+        return byEmail.get(email, key -> RoutingContext.onPrimary(() -> loader.apply(key)));
+    }
+
+    /**
+     * Entrées déjà en cache parmi ids, sans chargement : un chargement groupé ne bloquerait pas
+     * l'invalidation des clés concernées.
+     */
+    public Map<Long, UserResponseDTO> getAllPresentById(Collection<Long> ids) {
+        return byId.getAllPresent(ids);
+    }
+
+    public void evict(Long id, String... emails) {
+        doEvict(id, emails);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvict(id, emails);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", toMap(byId.stats(), byId.estimatedSize()));
+        stats.put("byEmail", toMap(byEmail.stats(), byEmail.estimatedSize()));
+        return stats;
+    }
+
+    private void doEvict(Long id, String... emails) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        for (String email : emails) {
+            if (email != null) {
+                byEmail.invalidate(email);
+            }
+        }
+    }
+
+    private static Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hits", stats.hitCount());
+        map.put("misses", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictions", stats.evictionCount());
+        map.put("averageLoadMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return map;
+    }
+}
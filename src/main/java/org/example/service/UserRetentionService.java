@@ -0,0 +1,195 @@
+package org.example.service;
+
+import org.example.model.enums.Role;
+import org.example.model.enums.UserStatus;
+import org.example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Supprime définitivement (ou archive dans users_archive) les utilisateurs supprimés logiquement
+ * depuis plus de user.purge.retention-days jours.
+ *
+ * Travaille par lots de user.purge.chunk-size lignes, chacun dans sa propre transaction courte
+ * (une seule requête DELETE ... RETURNING), parcourus par clé (deleted_at, id). Une pause entre deux
+ * lots laisse passer le trafic et le flux de réplication.
+ */
+@Service
+public class UserRetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserRetentionService.class);
+
+    // Clé de départ du parcours : antérieure à toute date de suppression
+    private static final LocalDateTime START_KEY = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = Duration.ofSeconds(10).toNanos();
+
+    private final UserRepository userRepository;
+    private final UserStatsService userStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final boolean archive;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder totalPurged = new LongAdder();
+    private volatile Map<String, Object> lastRun;
+
+    public UserRetentionService(UserRepository userRepository, UserStatsService userStatsService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${user.purge.enabled:true}") boolean enabled,
+                                @Value("${user.purge.mode:delete}") String mode,
+                                @Value("${user.purge.retention-days:30}") int retentionDays,
+                                @Value("${user.purge.chunk-size:500}") int chunkSize,
+                                @Value("${user.purge.pause-ms:200}") long pauseMs) {
+        this.userRepository = userRepository;
+        this.userStatsService = userStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.archive = switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "delete" -> false;
+            case "archive" -> true;
+            default -> throw new IllegalArgumentException("user.purge.mode must be delete or archive: " + mode);
+        };
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(cron = "${user.purge.cron:0 30 3 * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    /**
+     * @return nombre d'utilisateurs purgés, ou -1 si une purge est déjà en cours
+     */
+    public long purge() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            return doPurge(LocalDateTime.now().minusDays(retentionDays));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("mode", archive ? "archive" : "delete");
+        stats.put("retentionDays", retentionDays);
+        stats.put("running", running.get());
+        stats.put("totalPurged", totalPurged.sum());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    private long doPurge(LocalDateTime cutoff) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        long lastLog = start;
+        long purged = 0;
+        int chunks = 0;
+
+        LocalDateTime afterDeletedAt = START_KEY;
+        long afterId = 0;
+
+        try {
+            while (true) {
+                LocalDateTime keyDeletedAt = afterDeletedAt;
+                long keyId = afterId;
+                List<Object[]> rows = transactionTemplate.execute(status -> purgeChunk(cutoff, keyDeletedAt, keyId));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+
+                chunks++;
+                purged += rows.size();
+                totalPurged.add(rows.size());
+
+                // RETURNING ne garantit pas l'ordre : la clé suivante est la plus grande du lot
+                for (Object[] row : rows) {
+                    LocalDateTime deletedAt = toLocalDateTime(row[2]);
+                    long id = ((Number) row[0]).longValue();
+                    if (deletedAt.isAfter(afterDeletedAt) || (deletedAt.equals(afterDeletedAt) && id > afterId)) {
+                        afterDeletedAt = deletedAt;
+                        afterId = id;
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - lastLog >= PROGRESS_LOG_INTERVAL_NANOS) {
+                    log.info("User purge in progress: {} rows in {} chunks ({} rows/s)",
+                            purged, chunks, rowsPerSecond(purged, now - start));
+                    lastLog = now;
+                }
+
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("User purge interrupted after {} rows", purged);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("startedAt", startedAt.toString());
+            run.put("cutoff", cutoff.toString());
+            run.put("rows", purged);
+            run.put("chunks", chunks);
+            run.put("durationMs", elapsed / 1_000_000);
+            run.put("rowsPerSecond", rowsPerSecond(purged, elapsed));
+            lastRun = run;
+        }
+
+        log.info("User purge finished: {} rows {} in {} chunks ({} rows/s)", purged,
+                archive ? "archived" : "deleted", chunks, rowsPerSecond(purged, System.nanoTime() - start));
+        return purged;
+    }
+
+    // Une transaction : suppression du lot et mise à jour des compteurs "DELETED" par rôle
+    private List<Object[]> purgeChunk(LocalDateTime cutoff, LocalDateTime afterDeletedAt, long afterId) {
+        List<Object[]> rows = archive
+                ? userRepository.archiveDeletedBatch(cutoff, afterDeletedAt, afterId, chunkSize)
+                : userRepository.deleteDeletedBatch(cutoff, afterDeletedAt, afterId, chunkSize);
+
+        Map<Role, Long> byRole = new EnumMap<>(Role.class);
+        for (Object[] row : rows) {
+            byRole.merge(Role.valueOf((String) row[1]), 1L, Long::sum);
+        }
+        byRole.forEach((role, count) -> userStatsService.recordRemoved(role, UserStatus.DELETED, count));
+        return rows;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private static long rowsPerSecond(long rows, long nanos) {
+        return nanos == 0 ? 0 : Math.round(rows * 1_000_000_000.0 / nanos);
+    }
+}
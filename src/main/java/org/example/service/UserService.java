@@ -1,41 +1,246 @@
 package org.example.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.dto.BulkUserResultDTO;
+import org.example.dto.CursorPageDTO;
 import org.example.dto.UserRequestDTO;
 import org.example.dto.UserResponseDTO;
+import org.example.dto.UserStatsDTO;
+import org.example.exception.PreconditionFailedException;
 import org.example.model.User;
 import org.example.mapper.UserMapper;
 import org.example.model.enums.Role;
+import org.example.model.enums.UserStatus;
 import org.example.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.example.util.CursorCodec;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashingService;
+    private final UserStatsService userStatsService;
+    private final EmailBloomFilter emailFilter;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     // ⭐ Regex pour validation email
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
             "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
     );
 
+    private static final int MAX_BULK_SIZE = 100_000;
+    private static final int MAX_BATCH_IDS = 5_000;
+    private static final int BULK_QUERY_CHUNK_SIZE = 1_000;
+    // Multiple de hibernate.jdbc.batch_size
+    private static final int BULK_INSERT_CHUNK_SIZE = 500;
+
+    // Colonnes autorisées pour la pagination par curseur (valeurs non nulles et stables)
+    private static final List<String> CURSOR_SORT_KEYS = List.of("id", "nom", "email", "role", "createdAt");
+
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserCache userCache,
+                       PasswordHashingService passwordHashingService, UserStatsService userStatsService,
+                       EmailBloomFilter emailFilter, PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.userCache = userCache;
+        this.passwordHashingService = passwordHashingService;
+        this.userStatsService = userStatsService;
+        this.emailFilter = emailFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public UserResponseDTO createUser(UserRequestDTO requestDTO) {
+        validateForCreate(requestDTO);
+
+        if (emailFilter.exists(requestDTO.getEmail(), userRepository::existsByEmail)) {
+            throw new IllegalArgumentException("Email already exists: " + requestDTO.getEmail());
+        }
+
+        User user = UserMapper.toEntity(requestDTO);
+        user.setMotDePasse(passwordHashingService.encode(requestDTO.getMotDePasse()));
+
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOr(e, requestDTO.getEmail());
+        }
+        emailFilter.add(savedUser.getEmail());
+        userStatsService.recordCreated(savedUser);
+        return UserMapper.toResponse(savedUser);
+    }
+
+    /**
+     * Création en masse : mêmes règles que createUser, unicité des emails vérifiée en quelques
+     * requêtes IN (pour les seuls emails que le filtre n'exclut pas), puis INSERT regroupés par lots JDBC. Les lignes invalides sont rapportées
+     * sans interrompre les autres.
+     *
+     * Hors transaction : les mots de passe sont hachés sans tenir de connexion, puis chaque lot de
+     * BULK_INSERT_CHUNK_SIZE lignes est validé dans sa propre transaction. Un lot en échec n'annule que
+     * lui-même ; ses lignes sont alors rejouées une à une et chacune reçoit son propre résultat.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkUserResultDTO> bulkCreateUsers(List<UserRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one user is required");
+        }
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new IllegalArgumentException("A bulk import is limited to " + MAX_BULK_SIZE + " users");
+        }
+
+        BulkUserResultDTO[] results = new BulkUserResultDTO[requests.size()];
+        Map<String, Integer> validByEmail = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            UserRequestDTO requestDTO = requests.get(i);
+            String email = requestDTO != null ? requestDTO.getEmail() : null;
+            try {
+                if (requestDTO == null) {
+                    throw new IllegalArgumentException("User is required");
+                }
+                validateForCreate(requestDTO);
+                if (validByEmail.containsKey(email)) {
+                    throw new IllegalArgumentException("Duplicate email in request: " + email);
+                }
+                validByEmail.put(email, i);
+            } catch (IllegalArgumentException e) {
+                results[i] = BulkUserResultDTO.error(i, email, e.getMessage());
+            }
+        }
+
+        List<String> emails = new ArrayList<>();
+        for (String email : validByEmail.keySet()) {
+            if (emailFilter.mightContain(email)) {
+                emails.add(email);
+            }
+        }
+        for (int start = 0; start < emails.size(); start += BULK_QUERY_CHUNK_SIZE) {
+            List<String> chunk = emails.subList(start, Math.min(start + BULK_QUERY_CHUNK_SIZE, emails.size()));
+            for (String existing : userRepository.findExistingEmails(chunk)) {
+                Integer index = validByEmail.remove(existing);
+                if (index != null) {
+                    results[index] = BulkUserResultDTO.error(index, existing, "Email already exists: " + existing);
+                }
+            }
+        }
+
+        List<Integer> indexes = new ArrayList<>(validByEmail.values());
+        List<String> rawPasswords = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            rawPasswords.add(requests.get(index).getMotDePasse());
+        }
+        List<String> encodedPasswords = passwordHashingService.encodeAll(rawPasswords);
+
+        for (int start = 0; start < indexes.size(); start += BULK_INSERT_CHUNK_SIZE) {
+            int end = Math.min(start + BULK_INSERT_CHUNK_SIZE, indexes.size());
+            List<Integer> chunkIndexes = indexes.subList(start, end);
+            List<String> chunkPasswords = encodedPasswords.subList(start, end);
+            List<User> chunk;
+            try {
+                chunk = transactionTemplate.execute(status ->
+                        insertChunk(requests, chunkIndexes, chunkPasswords));
+            } catch (DataIntegrityViolationException | ConstraintViolationException e) {
+                // Lot annulé (email créé entre-temps) : ses lignes sont rejouées une à une plus bas
+                chunk = null;
+            } catch (RuntimeException e) {
+                // Base indisponible : les lots déjà validés restent, ce lot et les suivants sont rapportés en échec
+                markNotImported(requests, indexes.subList(start, indexes.size()), results, e);
+                break;
+            }
+
+            if (chunk != null) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    User user = chunk.get(i);
+                    emailFilter.add(user.getEmail());
+                    results[chunkIndexes.get(i)] = BulkUserResultDTO.created(chunkIndexes.get(i), user.getId(),
+                            user.getEmail());
+                }
+                continue;
+            }
+
+            // Rejeu ligne à ligne pour isoler l'échec ; une autre erreur que l'unicité arrête l'import
+            // comme ci-dessus
+            int retried = 0;
+            try {
+                for (; retried < chunkIndexes.size(); retried++) {
+                    results[chunkIndexes.get(retried)] = insertOne(requests, chunkIndexes.get(retried),
+                            chunkPasswords.get(retried));
+                }
+            } catch (RuntimeException e) {
+                markNotImported(requests, indexes.subList(start + retried, indexes.size()), results, e);
+                break;
+            }
+        }
+
+        return List.of(results);
+    }
+
+    private List<User> insertChunk(List<UserRequestDTO> requests, List<Integer> indexes, List<String> passwords) {
+        List<User> chunk = new ArrayList<>(indexes.size());
+        for (int i = 0; i < indexes.size(); i++) {
+            User user = UserMapper.toEntity(requests.get(indexes.get(i)));
+            user.setMotDePasse(passwords.get(i));
+            chunk.add(user);
+        }
+        userRepository.saveAll(chunk);
+        userStatsService.recordCreated(chunk);
+        entityManager.flush();
+        return chunk;
+    }
+
+    private static void markNotImported(List<UserRequestDTO> requests, List<Integer> indexes,
+                                        BulkUserResultDTO[] results, RuntimeException e) {
+        for (Integer index : indexes) {
+            results[index] = BulkUserResultDTO.error(index, requests.get(index).getEmail(),
+                    "Not imported: " + e.getMessage());
+        }
+    }
+
+    // Seule une violation d'unicité est rapportée sur la ligne ; toute autre erreur remonte à l'appelant
+    private BulkUserResultDTO insertOne(List<UserRequestDTO> requests, int index, String password) {
+        String email = requests.get(index).getEmail();
+        try {
+            User user = transactionTemplate.execute(status ->
+                    insertChunk(requests, List.of(index), List.of(password)).get(0));
+            emailFilter.add(user.getEmail());
+            return BulkUserResultDTO.created(index, user.getId(), user.getEmail());
+        } catch (DataIntegrityViolationException | ConstraintViolationException e) {
+            return BulkUserResultDTO.error(index, email, duplicateEmailOr(e, email).getMessage());
+        }
+    }
+
+    static void validateForCreate(UserRequestDTO requestDTO) {
         if (requestDTO.getNom() == null || requestDTO.getNom().trim().isEmpty()) {
             throw new IllegalArgumentException("Name is required");
         }
@@ -53,10 +258,6 @@ public class UserService {
             throw new IllegalArgumentException("Invalid email format");
         }
 
-        if (userRepository.existsByEmail(requestDTO.getEmail())) {
-            throw new IllegalArgumentException("Email already exists: " + requestDTO.getEmail());
-        }
-
         if (requestDTO.getMotDePasse() == null || requestDTO.getMotDePasse().isEmpty()) {
             throw new IllegalArgumentException("Password is required");
         }
@@ -70,67 +271,211 @@ public class UserService {
         if (requestDTO.getRole() != Role.ADMIN && requestDTO.getRole() != Role.USER) {
             throw new IllegalArgumentException("Role must be ADMIN or USER");
         }
-
-        User user = UserMapper.toEntity(requestDTO);
-        user.setMotDePasse(passwordEncoder.encode(requestDTO.getMotDePasse()));
-
-        User savedUser = userRepository.save(user);
-        return UserMapper.toResponse(savedUser);
     }
 
     @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsers() {
-        List<User> users = userRepository.findAllActive();
-        return UserMapper.toResponseList(users);
+        return userRepository.findAllActiveResponses();
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserResponseDTO> consumer) {
+        try (Stream<UserResponseDTO> users = userRepository.streamAllActiveResponses()) {
+            users.forEach(consumer);
+        }
     }
 
     @Transactional(readOnly = true)
     public Page<UserResponseDTO> getAllUsersPaginated(Pageable pageable) {
-        Page<User> users = userRepository.findAll(pageable);
-        return users.map(UserMapper::toResponse);
+        return userRepository.findActiveResponses(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<UserResponseDTO> getAllUsersSlice(Pageable pageable) {
+        return userRepository.findActiveResponsesBy(pageable);
+    }
+
+    /**
+     * Total approximatif des utilisateurs non supprimés, d'après les compteurs user_stats (exacts à une
+     * écriture SQL directe près, jusqu'à la prochaine réconciliation).
+     */
+    @Transactional(readOnly = true)
+    public Long getApproximateUserCount() {
+        UserStatsDTO stats = userStatsService.getStats();
+        return stats.active() + stats.inactive();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserResponseDTO> getUsersByCursor(String cursor, int size, String sortBy,
+                                                           Sort.Direction direction) {
+        if (size < 1 || size > 1000) {
+            throw new IllegalArgumentException("Size must be between 1 and 1000");
+        }
+        if (!CURSOR_SORT_KEYS.contains(sortBy)) {
+            throw new IllegalArgumentException("Invalid sortBy for cursor pagination: " + sortBy +
+                    ". Valid values are: " + String.join(", ", CURSOR_SORT_KEYS));
+        }
+
+        // size + 1 pour savoir s'il existe une page suivante, sans COUNT
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<UserResponseDTO> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            Sort sort = sortBy.equals("id")
+                    ? Sort.by(direction, "id")
+                    : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+            rows = userRepository.findActiveFirstPage(PageRequest.of(0, size + 1, sort));
+        } else {
+            rows = seekAfter(decodeCursor(cursor, sortBy, direction), sortBy, direction, limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = hasNext ? encodeCursor(rows.get(rows.size() - 1), sortBy, direction) : null;
+        return new CursorPageDTO<>(rows, nextCursor, hasNext);
     }
 
     @Transactional(readOnly = true)
     public UserResponseDTO getUserById(Long id) {
-        User user = userRepository.findActiveById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
-        return UserMapper.toResponse(user);
+        UserResponseDTO user = userCache.getById(id, key -> userRepository.findActiveResponseById(key)
+                .orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found with id: " + id);
+        }
+        return user;
     }
 
+    /**
+     * Recherche groupée par id : entrées du cache d'abord, puis le reste par requêtes IN de
+     * BULK_QUERY_CHUNK_SIZE ids. Les ids absents ou supprimés ne figurent pas dans le résultat,
+     * qui suit l'ordre de la requête (doublons ignorés).
+     */
     @Transactional(readOnly = true)
-    public UserResponseDTO getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    public Map<Long, UserResponseDTO> getUsersByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("A batch lookup is limited to " + MAX_BATCH_IDS + " ids");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.contains(null)) {
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+
+        Map<Long, UserResponseDTO> found = new HashMap<>(userCache.getAllPresentById(requested));
 
-        if (user.getDeletedAt() != null) {
-            throw new RuntimeException("User has been deleted");
+        List<Long> misses = new ArrayList<>(requested.size() - found.size());
+        for (Long id : requested) {
+            if (!found.containsKey(id)) {
+                misses.add(id);
+            }
+        }
+        for (int start = 0; start < misses.size(); start += BULK_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = misses.subList(start, Math.min(start + BULK_QUERY_CHUNK_SIZE, misses.size()));
+            for (UserResponseDTO user : userRepository.findActiveResponsesByIdIn(chunk)) {
+                found.put(user.getId(), user);
+            }
         }
 
-        return UserMapper.toResponse(user);
+        Map<Long, UserResponseDTO> results = new LinkedHashMap<>();
+        for (Long id : requested) {
+            UserResponseDTO user = found.get(id);
+            if (user != null) {
+                results.put(id, user);
+            }
+        }
+        return results;
     }
 
+    // Utilisateur inconnu ou supprimé : même réponse, sans seconde requête pour les distinguer
     @Transactional(readOnly = true)
-    public List<UserResponseDTO> searchUsersByName(String name) {
-        List<User> users = userRepository.findByNomContainingIgnoreCase(name);
-        return UserMapper.toResponseList(users);
+    public UserResponseDTO getUserByEmail(String email) {
+        UserResponseDTO user = userCache.getByEmail(email, key -> userRepository.findActiveResponseByEmail(key)
+                .orElse(null));
+        if (user == null) {
+            throw new RuntimeException("User not found with email: " + email);
+        }
+        return user;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserResponseDTO> searchUsers(String query, int limit, String cursor) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+
+        String q = query.trim();
+        String pattern = "%" + escapeLike(q) + "%";
+
+        // limit + 1 pour savoir s'il existe une page suivante
+        List<Object[]> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = userRepository.searchRanked(q, pattern, limit + 1);
+        } else {
+            List<String> values = CursorCodec.decode(cursor, 2);
+            try {
+                rows = userRepository.searchRankedAfter(q, pattern,
+                        Float.parseFloat(values.get(0)), Long.parseLong(values.get(1)), limit + 1);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        boolean hasNext = rows.size() > limit;
+        if (hasNext) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add(((Number) row[0]).longValue());
+        }
+
+        // Recharge les lignes trouvées puis restitue l'ordre du classement
+        List<UserResponseDTO> results = findActiveInOrder(ids);
+
+        String nextCursor = null;
+        if (hasNext) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = CursorCodec.encode(List.of(
+                    Float.toString(((Number) last[1]).floatValue()),
+                    String.valueOf(((Number) last[0]).longValue())
+            ));
+        }
+
+        return new CursorPageDTO<>(results, nextCursor, hasNext);
     }
 
     @Transactional(readOnly = true)
     public List<UserResponseDTO> getUsersByRole(String role) {
         try {
-            List<User> users = userRepository.findByRole(
-                    Role.valueOf(role.toUpperCase())
-            );
-            return UserMapper.toResponseList(users);
+            return userRepository.findResponsesByRole(Role.valueOf(role.toUpperCase()));
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid role: " + role + ". Valid roles are: " +
                     String.join(", ", getAllRoleNames()));
         }
     }
 
-    public UserResponseDTO updateUser(Long id, UserRequestDTO requestDTO) {
+    /**
+     * @param expectedVersion version lue par le client (If-Match), null pour une mise à jour inconditionnelle.
+     *                        Une modification concurrente entre la lecture et l'UPDATE est détectée par la
+     *                        clause "version = ?" (ObjectOptimisticLockingFailureException).
+     */
+    public UserResponseDTO updateUser(Long id, UserRequestDTO requestDTO, Long expectedVersion) {
         User existingUser = userRepository.findActiveById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new PreconditionFailedException("User " + id + " has been modified since it was read");
+        }
+        String previousEmail = existingUser.getEmail();
+        Role previousRole = existingUser.getRole();
+        UserStatus previousStatus = UserStatus.of(existingUser.getActif(), existingUser.getDeletedAt());
 
         if (requestDTO.getNom() != null) {
             if (requestDTO.getNom().trim().length() < 3) {
@@ -146,7 +491,7 @@ public class UserService {
                 throw new IllegalArgumentException("Invalid email format");
             }
             if (!requestDTO.getEmail().equals(existingUser.getEmail()) &&
-                    userRepository.existsByEmail(requestDTO.getEmail())) {
+                    emailFilter.exists(requestDTO.getEmail(), userRepository::existsByEmail)) {
                 throw new IllegalArgumentException("Email already exists: " + requestDTO.getEmail());
             }
         }
@@ -166,10 +511,21 @@ public class UserService {
         UserMapper.updateEntityFromDTO(existingUser, requestDTO);
 
         if (requestDTO.getMotDePasse() != null && !requestDTO.getMotDePasse().trim().isEmpty()) {
-            existingUser.setMotDePasse(passwordEncoder.encode(requestDTO.getMotDePasse()));
+            existingUser.setMotDePasse(passwordHashingService.encode(requestDTO.getMotDePasse()));
         }
 
-        User updatedUser = userRepository.save(existingUser);
+        // Flush immédiat : conflit de version levé ici et nouvelle version renvoyée au client
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(existingUser);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateEmailOr(e, requestDTO.getEmail());
+        }
+        if (!updatedUser.getEmail().equals(previousEmail)) {
+            emailFilter.add(updatedUser.getEmail());
+        }
+        userStatsService.recordChanged(previousRole, previousStatus, updatedUser);
+        userCache.evict(id, previousEmail, updatedUser.getEmail());
         return UserMapper.toResponse(updatedUser);
     }
 
@@ -177,16 +533,110 @@ public class UserService {
         User user = userRepository.findActiveById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
+        UserStatus previousStatus = UserStatus.of(user.getActif(), user.getDeletedAt());
         user.setDeletedAt(LocalDateTime.now());
         user.setActif(false);
         userRepository.save(user);
+        userStatsService.recordChanged(user.getRole(), previousStatus, user);
+        userCache.evict(id, user.getEmail());
     }
 
     public void hardDeleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
         userRepository.deleteById(id);
+        userStatsService.recordRemoved(user);
+        userCache.evict(id, user.getEmail());
+    }
+
+    // Contrainte users_email_key : garde-fou final quand le filtre d'emails n'a pas vu un email existant
+    // (écrit par une autre instance ou directement en SQL)
+    private static RuntimeException duplicateEmailOr(RuntimeException e, String email) {
+        Throwable cause = e instanceof ConstraintViolationException ? e : e.getCause();
+        if (cause instanceof ConstraintViolationException violation &&
+                "users_email_key".equalsIgnoreCase(violation.getConstraintName())) {
+            return new IllegalArgumentException(email != null ? "Email already exists: " + email
+                    : "Email already exists", e);
+        }
+        return e;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private List<UserResponseDTO> findActiveInOrder(List<Long> ids) {
+        Map<Long, UserResponseDTO> usersById = new HashMap<>();
+        for (UserResponseDTO user : userRepository.findActiveResponsesByIdIn(ids)) {
+            usersById.put(user.getId(), user);
+        }
+        List<UserResponseDTO> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            UserResponseDTO user = usersById.get(id);
+            if (user != null) {
+                results.add(user);
+            }
+        }
+        return results;
+    }
+
+    // Une requête par clé et sens : (clé, id) > (:key, :id) en ASC, < en DESC
+    private List<UserResponseDTO> seekAfter(Object[] key, String sortBy, Sort.Direction direction,
+                                            Pageable limit) {
+        long id = (Long) key[1];
+        boolean asc = direction.isAscending();
+        return switch (sortBy) {
+            case "id" -> asc ? userRepository.findActiveAfterId(id, limit)
+                    : userRepository.findActiveBeforeId(id, limit);
+            case "nom" -> asc ? userRepository.findActiveAfterNom((String) key[0], id, limit)
+                    : userRepository.findActiveBeforeNom((String) key[0], id, limit);
+            case "email" -> asc ? userRepository.findActiveAfterEmail((String) key[0], id, limit)
+                    : userRepository.findActiveBeforeEmail((String) key[0], id, limit);
+            case "role" -> findActiveInOrder(asc
+                    ? userRepository.findActiveIdsAfterRole(((Role) key[0]).name(), id, limit.getPageSize())
+                    : userRepository.findActiveIdsBeforeRole(((Role) key[0]).name(), id, limit.getPageSize()));
+            case "createdAt" -> asc ? userRepository.findActiveAfterCreatedAt((LocalDateTime) key[0], id, limit)
+                    : userRepository.findActiveBeforeCreatedAt((LocalDateTime) key[0], id, limit);
+            default -> throw new IllegalArgumentException("Invalid sortBy for cursor pagination: " + sortBy);
+        };
+    }
+
+    static String encodeCursor(UserResponseDTO last, String sortBy, Sort.Direction direction) {
+        Object value = switch (sortBy) {
+            case "id" -> last.getId();
+            case "nom" -> last.getNom();
+            case "email" -> last.getEmail();
+            case "role" -> last.getRole().name();
+            default -> last.getCreatedAt();
+        };
+        return CursorCodec.encode(List.of(
+                sortBy,
+                direction.name(),
+                String.valueOf(value),
+                String.valueOf(last.getId())
+        ));
+    }
+
+    // [valeur de la clé de tri, id] de la dernière ligne de la page précédente
+    static Object[] decodeCursor(String cursor, String sortBy, Sort.Direction direction) {
+        List<String> values = CursorCodec.decode(cursor, 4);
+        if (!values.get(0).equals(sortBy) || !values.get(1).equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor does not match sortBy/direction");
+        }
+
+        try {
+            Object sortValue = switch (sortBy) {
+                case "id" -> Long.valueOf(values.get(2));
+                case "role" -> Role.valueOf(values.get(2));
+                case "createdAt" -> LocalDateTime.parse(values.get(2));
+                default -> values.get(2);
+            };
+            return new Object[] { sortValue, Long.valueOf(values.get(3)) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
 
     private String[] getAllRoleNames() {
@@ -0,0 +1,219 @@
+package org.example.service;
+
+import org.example.dto.UserCountDTO;
+import org.example.dto.UserStatsDTO;
+import org.example.model.User;
+import org.example.model.enums.Role;
+import org.example.model.enums.UserStatus;
+import org.example.repository.UserRepository;
+import org.example.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Compteurs d'utilisateurs par rôle et état, tenus à jour dans la transaction qui crée, modifie ou
+ * supprime : GET /api/users/stats lit quelques lignes au lieu de parcourir la table users.
+ *
+ * La même transaction incrémente la version des listes (user_list_version), qui sert d'ETag aux
+ * listes d'utilisateurs. Une écriture SQL directe dans users ne la fait pas avancer.
+ *
+ * Les variations d'une transaction sont cumulées puis écrites juste avant le commit, une ligne par
+ * couple (rôle, état) : les verrous de ligne ne sont tenus que le temps du commit. Les couples sont
+ * écrits dans un ordre fixe et sur un même slot, deux transactions ne peuvent donc pas s'interbloquer.
+ *
+ * Une réconciliation périodique recompte la table et corrige les compteurs (écritures SQL directes,
+ * échecs partiels...).
+ */
+@Service
+@Transactional
+public class UserStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserStatsService.class);
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserRepository userRepository;
+    private final int slots;
+    private final long lockTimeoutMs;
+
+    private volatile LocalDateTime reconciledAt;
+
+    public UserStatsService(UserStatsRepository userStatsRepository, UserRepository userRepository,
+                            @Value("${user.stats.slots:8}") int slots,
+                            @Value("${user.stats.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        this.userStatsRepository = userStatsRepository;
+        this.userRepository = userRepository;
+        this.slots = slots;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    public void recordCreated(User user) {
+        add(user.getRole(), UserStatus.of(user.getActif(), user.getDeletedAt()), 1);
+    }
+
+    public void recordCreated(List<User> users) {
+        for (User user : users) {
+            recordCreated(user);
+        }
+    }
+
+    public void recordChanged(Role previousRole, UserStatus previousStatus, User user) {
+        UserStatus status = UserStatus.of(user.getActif(), user.getDeletedAt());
+        if (previousRole == user.getRole() && previousStatus == status) {
+            pending();
+            return;
+        }
+        add(previousRole, previousStatus, -1);
+        add(user.getRole(), status, 1);
+    }
+
+    public void recordRemoved(User user) {
+        recordRemoved(user.getRole(), UserStatus.of(user.getActif(), user.getDeletedAt()), 1);
+    }
+
+    public void recordRemoved(Role role, UserStatus status, long count) {
+        add(role, status, -count);
+    }
+
+    /**
+     * Exécute action avec la version des listes (avance à chaque commit qui a créé, modifié ou supprimé
+     * des utilisateurs), dans une même transaction read-only : les lectures de action rejoignent la
+     * transaction et passent par la même connexion, donc par le même réplica. La version étant lue
+     * d'abord, le contenu n'est jamais plus ancien qu'elle.
+     */
+    @Transactional(readOnly = true)
+    public <T> T withListVersion(LongFunction<T> action) {
+        return action.apply(userStatsRepository.sumListVersion());
+    }
+
+    @Transactional(readOnly = true)
+    public UserStatsDTO getStats() {
+        Map<Role, Map<UserStatus, Long>> counts = new EnumMap<>(Role.class);
+        for (UserCountDTO count : userStatsRepository.sumCounters()) {
+            counts.computeIfAbsent(count.role(), role -> new EnumMap<>(UserStatus.class))
+                    .put(count.status(), count.count());
+        }
+
+        long active = 0;
+        long inactive = 0;
+        long deleted = 0;
+        Map<String, UserStatsDTO.Counts> byRole = new LinkedHashMap<>();
+        for (Role role : Role.values()) {
+            Map<UserStatus, Long> roleCounts = counts.getOrDefault(role, Map.of());
+            long roleActive = roleCounts.getOrDefault(UserStatus.ACTIVE, 0L);
+            long roleInactive = roleCounts.getOrDefault(UserStatus.INACTIVE, 0L);
+            long roleDeleted = roleCounts.getOrDefault(UserStatus.DELETED, 0L);
+
+            byRole.put(role.name(), new UserStatsDTO.Counts(roleActive + roleInactive + roleDeleted,
+                    roleActive, roleInactive, roleDeleted));
+            active += roleActive;
+            inactive += roleInactive;
+            deleted += roleDeleted;
+        }
+
+        return new UserStatsDTO(active + inactive + deleted, active, inactive, deleted, byRole, reconciledAt);
+    }
+
+    /**
+     * Compare les compteurs au contenu réel de la table et les réécrit en cas d'écart.
+     *
+     * Le verrou EXCLUSIVE attend les transactions qui ont déjà écrit leurs variations, puis bloque les
+     * suivantes jusqu'au commit : le comptage voit donc exactement les utilisateurs déjà comptés.
+     */
+    @Scheduled(initialDelayString = "${user.stats.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${user.stats.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        userStatsRepository.setLocalLockTimeout(String.valueOf(lockTimeoutMs));
+        userStatsRepository.lockForReconciliation();
+
+        Map<Bucket, Long> actual = new HashMap<>();
+        for (Object[] row : userRepository.countByRoleAndStatus()) {
+            actual.put(new Bucket(Role.valueOf((String) row[0]), UserStatus.valueOf((String) row[1])),
+                    ((Number) row[2]).longValue());
+        }
+        Map<Bucket, Long> counted = new HashMap<>();
+        for (UserCountDTO count : userStatsRepository.sumCounters()) {
+            counted.put(new Bucket(count.role(), count.status()), count.count());
+        }
+
+        long drift = 0;
+        Set<Bucket> buckets = new HashSet<>(actual.keySet());
+        buckets.addAll(counted.keySet());
+        for (Bucket bucket : buckets) {
+            drift += Math.abs(actual.getOrDefault(bucket, 0L) - counted.getOrDefault(bucket, 0L));
+        }
+
+        if (drift != 0) {
+            log.warn("User statistics drifted by {} from the users table, rewriting counters", drift);
+            userStatsRepository.deleteAllInBatch();
+            for (Map.Entry<Bucket, Long> entry : actual.entrySet()) {
+                userStatsRepository.increment(entry.getKey().role().name(), entry.getKey().status().name(), 0,
+                        entry.getValue());
+            }
+        }
+        reconciledAt = LocalDateTime.now();
+    }
+
+    private void add(Role role, UserStatus status, long delta) {
+        pending().deltas.merge(new Bucket(role, status), delta, Long::sum);
+    }
+
+    private PendingCounts pending() {
+        PendingCounts pending = (PendingCounts) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingCounts();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private record Bucket(Role role, UserStatus status) implements Comparable<Bucket> {
+
+        @Override
+        public int compareTo(Bucket other) {
+            int byRole = role.compareTo(other.role);
+            return byRole != 0 ? byRole : status.compareTo(other.status);
+        }
+    }
+
+    // Variations de la transaction en cours, écrites avant le commit avec la version des listes
+    private final class PendingCounts implements TransactionSynchronization {
+
+        private final Map<Bucket, Long> deltas = new TreeMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            int slot = ThreadLocalRandom.current().nextInt(slots);
+            for (Map.Entry<Bucket, Long> entry : deltas.entrySet()) {
+                if (entry.getValue() != 0) {
+                    userStatsRepository.increment(entry.getKey().role().name(), entry.getKey().status().name(),
+                            slot, entry.getValue());
+                }
+            }
+            userStatsRepository.incrementListVersion(slot);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResource(UserStatsService.this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encode une liste de valeurs en un curseur opaque (Base64 URL-safe) et inversement.
+ */
+public final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    public static String encode(List<String> values) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                raw.append('.');
+            }
+            raw.append(ENCODER.encodeToString(values.get(i).getBytes(StandardCharsets.UTF_8)));
+        }
+        return ENCODER.encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static List<String> decode(String cursor, int expectedSize) {
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\.", -1);
+            if (parts.length != expectedSize) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            List<String> values = new ArrayList<>(parts.length);
+            for (String part : parts) {
+                values.add(new String(DECODER.decode(part), StandardCharsets.UTF_8));
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
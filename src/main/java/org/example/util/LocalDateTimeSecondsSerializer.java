@@ -0,0 +1,54 @@
+package org.example.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Écrit une date au format "yyyy-MM-dd'T'HH:mm:ss" directement dans le générateur, sans passer
+ * par DateTimeFormatter (un StringBuilder et une String par valeur). Sortie identique à
+ * {@code @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")}.
+ */
+public class LocalDateTimeSecondsSerializer extends StdSerializer<LocalDateTime> {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    public LocalDateTimeSecondsSerializer() {
+        super(LocalDateTime.class);
+    }
+
+    @Override
+    public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            generator.writeString(FORMATTER.format(value));
+            return;
+        }
+
+        char[] chars = new char[19];
+        write(chars, 0, year, 4);
+        chars[4] = '-';
+        write(chars, 5, value.getMonthValue(), 2);
+        chars[7] = '-';
+        write(chars, 8, value.getDayOfMonth(), 2);
+        chars[10] = 'T';
+        write(chars, 11, value.getHour(), 2);
+        chars[13] = ':';
+        write(chars, 14, value.getMinute(), 2);
+        chars[16] = ':';
+        write(chars, 17, value.getSecond(), 2);
+        generator.writeString(chars, 0, chars.length);
+    }
+
+    private static void write(char[] chars, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
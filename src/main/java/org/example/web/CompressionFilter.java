@@ -0,0 +1,135 @@
+package org.example.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compression gzip des réponses volumineuses (listes JSON, export NDJSON).
+ *
+ * Ne compresse que si le client accepte gzip, que le type de contenu figure dans la liste
+ * configurée et que le corps dépasse le seuil minimal. Les Deflater viennent d'un {@link DeflaterPool}.
+ *
+ * Requêtes asynchrones (StreamingResponseBody) : le filtre est aussi appliqué au dispatch ASYNC,
+ * où il retrouve la réponse enveloppée lors du premier passage ; le flux gzip n'est terminé
+ * qu'une fois le traitement asynchrone achevé.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final DeflaterPool pool;
+    private final List<MediaType> compressibleTypes;
+    private final CompressionStats stats = new CompressionStats();
+
+    public CompressionFilter(boolean enabled, DeflaterPool pool, List<MediaType> compressibleTypes) {
+        this.enabled = enabled;
+        this.pool = pool;
+        this.compressibleTypes = compressibleTypes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        GzipResponseWrapper wrapper = WebUtils.getNativeResponse(response, GzipResponseWrapper.class);
+
+        if (wrapper == null) {
+            // La représentation dépend d'Accept-Encoding, compressée ou non
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if ("HEAD".equals(request.getMethod()) || !acceptsGzip(request)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            wrapper = new GzipResponseWrapper(response, pool, this::isCompressible, stats);
+        }
+
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrapper.abandon();
+            throw e;
+        }
+
+        if (!isAsyncStarted(request)) {
+            wrapper.finish();
+        }
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    public Map<String, Object> getPoolStats() {
+        return Map.of(
+                "idle", pool.getIdle(),
+                "created", pool.getCreated(),
+                "borrowed", pool.getBorrowed(),
+                "discarded", pool.getDiscarded()
+        );
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        for (MediaType compressible : compressibleTypes) {
+            if (compressible.includes(mediaType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "gzip" ou "*" avec q > 0 ; "gzip;q=0" refuse explicitement la compression
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            return quality > 0;
+        }
+        return false;
+    }
+}
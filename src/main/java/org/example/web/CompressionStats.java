@@ -0,0 +1,39 @@
+package org.example.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de la compression des réponses (exposés par /api/metrics/compression).
+ */
+public class CompressionStats {
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    void recordCompressed(long in, long out) {
+        compressed.increment();
+        bytesIn.add(in);
+        bytesOut.add(out);
+    }
+
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    public Map<String, Object> toMap() {
+        long in = bytesIn.sum();
+        long out = bytesOut.sum();
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("compressed", compressed.sum());
+        map.put("skipped", skipped.sum());
+        map.put("bytesIn", in);
+        map.put("bytesOut", out);
+        map.put("ratio", in == 0 ? 0.0 : Math.round(out * 1000.0 / in) / 1000.0);
+        return map;
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.web;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Pool borné de Deflater (mode "nowrap" : l'en-tête gzip est écrit par l'appelant) avec leurs tampons.
+ *
+ * Un Deflater alloue de la mémoire native et ne la libère qu'à end() : le réutiliser évite à la fois
+ * cette allocation et les tampons de travail à chaque réponse. Quand le pool est vide, une entrée
+ * supplémentaire est créée ; à la restitution, l'excédent est libéré.
+ */
+public class DeflaterPool {
+
+    private final BlockingQueue<Lease> idle;
+    private final int level;
+    private final int pendingBufferSize;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @param pendingBufferSize taille du tampon d'attente (seuil minimal de compression)
+     */
+    public DeflaterPool(int capacity, int level, int pendingBufferSize) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.level = level;
+        this.pendingBufferSize = pendingBufferSize;
+    }
+
+    public Lease borrow() {
+        borrowed.increment();
+        Lease lease = idle.poll();
+        if (lease == null) {
+            created.increment();
+            lease = new Lease(new Deflater(level, true), new byte[pendingBufferSize], new byte[8192]);
+        }
+        return lease;
+    }
+
+    public void release(Lease lease) {
+        lease.deflater.reset();
+        lease.crc.reset();
+        if (!idle.offer(lease)) {
+            discarded.increment();
+            lease.deflater.end();
+        }
+    }
+
+    public int getIdle() {
+        return idle.size();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getBorrowed() {
+        return borrowed.sum();
+    }
+
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    public static final class Lease {
+
+        final Deflater deflater;
+        final CRC32 crc = new CRC32();
+        // Octets retenus tant que le seuil n'est pas atteint
+        final byte[] pending;
+        // Sortie du Deflater
+        final byte[] output;
+
+        private Lease(Deflater deflater, byte[] pending, byte[] output) {
+            this.deflater = deflater;
+            this.pending = pending;
+            this.output = output;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package org.example.web;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
+
+/**
+ * Réponse qui retient les premiers octets jusqu'au seuil minimal, puis décide :
+ * au-delà du seuil et pour un type de contenu compressible, le corps est envoyé en gzip ;
+ * sinon il est transmis tel quel.
+ *
+ * Un flush() applicatif pendant l'attente est ignoré (la décision n'est pas encore prise) ;
+ * pendant la compression il produit un SYNC_FLUSH pour que le client reçoive les données au fil de l'eau.
+ *
+ * Écriture non bloquante (setWriteListener) : la réponse n'est pas compressée, le flux du conteneur est
+ * utilisé directement avec son propre isReady() (un write compressé peut produire plusieurs écritures).
+ */
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private enum State { BUFFERING, COMPRESSING, IDENTITY, FINISHED }
+
+    private final DeflaterPool pool;
+    private final Predicate<String> compressibleContentType;
+    private final CompressionStats stats;
+
+    private State state = State.BUFFERING;
+    private DeflaterPool.Lease lease;
+    private int pendingCount;
+    private long bytesIn;
+    private long bytesOut;
+    private long contentLength = -1;
+
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    GzipResponseWrapper(HttpServletResponse response, DeflaterPool pool,
+                        Predicate<String> compressibleContentType, CompressionStats stats) {
+        super(response);
+        this.pool = pool;
+        this.compressibleContentType = compressibleContentType;
+        this.stats = stats;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    GzipResponseWrapper.this.write(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    GzipResponseWrapper.this.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    GzipResponseWrapper.this.flush();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return GzipResponseWrapper.this.isReady();
+                }
+
+                @Override
+                public void setWriteListener(WriteListener listener) {
+                    GzipResponseWrapper.this.setWriteListener(listener);
+                }
+            };
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    // Content-Length n'est connu qu'une fois la décision prise (corps compressé ou non)
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (state == State.IDENTITY) {
+            super.setContentLengthLong(len);
+        } else if (state == State.BUFFERING) {
+            contentLength = len;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value != null ? Long.parseLong(value) : -1);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            // Le PrintWriter vide son encodeur puis appelle flush() sur le flux
+            writer.flush();
+        } else {
+            flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (state == State.BUFFERING) {
+            pendingCount = 0;
+        }
+        super.resetBuffer();
+    }
+
+    @Override
+    public void reset() {
+        if (state == State.BUFFERING) {
+            pendingCount = 0;
+            contentLength = -1;
+        }
+        super.reset();
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        switch (state) {
+            case BUFFERING -> {
+                if (lease == null) {
+                    lease = pool.borrow();
+                }
+                if (pendingCount + len <= lease.pending.length) {
+                    System.arraycopy(b, off, lease.pending, pendingCount, len);
+                    pendingCount += len;
+                    return;
+                }
+                if (isCompressible()) {
+                    startCompression();
+                    deflate(lease.pending, 0, pendingCount);
+                    deflate(b, off, len);
+                } else {
+                    startIdentity();
+                    ServletOutputStream out = super.getOutputStream();
+                    out.write(lease.pending, 0, pendingCount);
+                    out.write(b, off, len);
+                    releaseLease();
+                }
+            }
+            case COMPRESSING -> deflate(b, off, len);
+            case IDENTITY -> super.getOutputStream().write(b, off, len);
+            case FINISHED -> throw new IOException("Response already finished");
+        }
+    }
+
+    // Jusqu'au premier setWriteListener les écritures sont bloquantes : toujours prêtes
+    private boolean isReady() {
+        if (state == State.BUFFERING || state == State.COMPRESSING) {
+            return true;
+        }
+        try {
+            return super.getOutputStream().isReady();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void setWriteListener(WriteListener listener) {
+        if (state == State.COMPRESSING) {
+            throw new IllegalStateException("Non-blocking writes requested after compression started");
+        }
+        ServletOutputStream out;
+        try {
+            out = super.getOutputStream();
+            if (state == State.BUFFERING) {
+                startIdentity();
+                if (pendingCount > 0) {
+                    out.write(lease.pending, 0, pendingCount);
+                }
+                releaseLease();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.setWriteListener(listener);
+    }
+
+    private void flush() throws IOException {
+        if (state == State.COMPRESSING) {
+            syncFlush();
+            super.getOutputStream().flush();
+        } else if (state == State.IDENTITY) {
+            super.getOutputStream().flush();
+        }
+    }
+
+    /**
+     * Termine la réponse : corps en attente écrit tel quel, ou fin du flux gzip (trailer CRC32 + taille).
+     */
+    void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        try {
+            if (state == State.BUFFERING) {
+                startIdentity();
+                if (pendingCount > 0) {
+                    if (contentLength < 0) {
+                        super.setContentLengthLong(pendingCount);
+                    }
+                    super.getOutputStream().write(lease.pending, 0, pendingCount);
+                }
+                stats.recordSkipped();
+            } else if (state == State.COMPRESSING) {
+                finishDeflater();
+                writeTrailer();
+                stats.recordCompressed(bytesIn, bytesOut);
+            }
+        } finally {
+            state = State.FINISHED;
+            releaseLease();
+        }
+    }
+
+    // Libère le Deflater sans rien écrire (exception pendant le traitement de la requête)
+    void abandon() {
+        state = State.FINISHED;
+        releaseLease();
+    }
+
+    private boolean isCompressible() {
+        int status = getStatus();
+        return status >= 200 && status != HttpServletResponse.SC_NO_CONTENT
+                && status != HttpServletResponse.SC_NOT_MODIFIED
+                && !containsHeader(HttpHeaders.CONTENT_ENCODING)
+                && compressibleContentType.test(getContentType());
+    }
+
+    private void startCompression() throws IOException {
+        state = State.COMPRESSING;
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        // Un ETag fort désigne des octets précis : la version compressée n'a droit qu'à un ETag faible
+        String etag = getHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.startsWith("W/")) {
+            super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+        }
+
+        super.getOutputStream().write(GZIP_HEADER);
+        bytesOut += GZIP_HEADER.length;
+    }
+
+    private void startIdentity() {
+        state = State.IDENTITY;
+        if (contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+    private void deflate(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        lease.crc.update(b, off, len);
+        bytesIn += len;
+        lease.deflater.setInput(b, off, len);
+        while (!lease.deflater.needsInput()) {
+            int count = lease.deflater.deflate(lease.output, 0, lease.output.length, Deflater.NO_FLUSH);
+            writeCompressed(count);
+        }
+    }
+
+    private void syncFlush() throws IOException {
+        int count;
+        do {
+            count = lease.deflater.deflate(lease.output, 0, lease.output.length, Deflater.SYNC_FLUSH);
+            writeCompressed(count);
+        } while (count == lease.output.length);
+    }
+
+    private void finishDeflater() throws IOException {
+        lease.deflater.finish();
+        while (!lease.deflater.finished()) {
+            writeCompressed(lease.deflater.deflate(lease.output, 0, lease.output.length, Deflater.NO_FLUSH));
+        }
+    }
+
+    private void writeCompressed(int count) throws IOException {
+        if (count > 0) {
+            super.getOutputStream().write(lease.output, 0, count);
+            bytesOut += count;
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeInt(trailer, 0, (int) lease.crc.getValue());
+        writeInt(trailer, 4, (int) bytesIn);
+        super.getOutputStream().write(trailer);
+        bytesOut += trailer.length;
+    }
+
+    private static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    private void releaseLease() {
+        if (lease != null) {
+            pool.release(lease);
+            lease = null;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.web;
+
+import org.example.dto.ApiResponse;
+import org.example.metrics.LatencyHistogram;
+import org.example.persistence.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Exécute les handlers des contrôleurs hors des threads du conteneur servlet : le handler renvoie un
+ * CompletableFuture et le thread du conteneur est rendu pendant l'aller-retour JDBC ou le calcul BCrypt.
+ *
+ * Modes : "sync" (exécution sur le thread de la requête, par défaut), "pool" (pool borné, file pleine → 503)
+ * et "virtual" (un thread virtuel par requête, JDK 21+ ; repli sur "sync" sinon). Sur le JDK 17, "pool"
+ * ajoute un changement de thread et une file sans gain tant que le pool du conteneur suffit : à réserver
+ * aux charges mesurées (bench/async_load_test.sh). La concurrence sur la base reste bornée par Hikari.
+ *
+ * Le handler ne doit pas toucher à HttpServletRequest (ni thread-safe, ni valide une fois le thread du
+ * conteneur rendu) : les contrôleurs en lisent ce dont ils ont besoin avant submit.
+ *
+ * Le contexte de routage de la requête (RoutingContext) suit le handler sur son thread ; si le handler
+ * a écrit, la réponse porte le cookie d'épinglage au primaire (ReadYourWrites).
+ *
+ * Sert aussi d'intercepteur des résultats différés : un handler qui dépasse le délai MVC reçoit une
+ * enveloppe 503 plutôt que la page d'erreur du conteneur. Le traitement n'est pas interrompu pour autant.
+ */
+public class HandlerExecutor implements DeferredResultProcessingInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(HandlerExecutor.class);
+
+    public enum Mode { VIRTUAL, POOL, SYNC }
+
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final ReadYourWrites readYourWrites;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public HandlerExecutor(String mode, int poolSize, int queueCapacity, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        Mode requested = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+
+        ExecutorService virtualExecutor = requested == Mode.VIRTUAL ? newVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            this.mode = Mode.VIRTUAL;
+            this.executor = virtualExecutor;
+        } else if (requested == Mode.POOL) {
+            this.mode = Mode.POOL;
+            this.executor = newBoundedPool(poolSize, queueCapacity);
+        } else {
+            // Sans threads virtuels, un pool de plus n'apporterait qu'un saut de thread : exécution synchrone
+            if (requested == Mode.VIRTUAL) {
+                log.warn("Virtual threads are not available on Java {}, handlers run on the request thread",
+                        Runtime.version().feature());
+            }
+            this.mode = Mode.SYNC;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Lance le handler. Si l'exécuteur refuse la tâche, la réponse 503 est renvoyée sans attendre.
+     */
+    public CompletableFuture<ResponseEntity<ApiResponse>> submit(Supplier<ResponseEntity<ApiResponse>> handler) {
+        RoutingContext context = RoutingContext.current();
+        if (executor == null) {
+            return CompletableFuture.completedFuture(readYourWrites.run(context, handler));
+        }
+
+        submitted.increment();
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - submittedAt);
+                return readYourWrites.run(context, handler);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.completedFuture(serviceUnavailable("Server is busy. Please retry later."));
+        }
+    }
+
+    /**
+     * Exécuteur des traitements asynchrones MVC (StreamingResponseBody), null en mode "sync".
+     */
+    public AsyncTaskExecutor getTaskExecutor() {
+        if (executor == null) {
+            return null;
+        }
+        TaskExecutorAdapter adapter = new TaskExecutorAdapter(executor);
+        adapter.setTaskDecorator(RoutingContext::wrap);
+        return adapter;
+    }
+
+    @Override
+    public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        timeouts.increment();
+        deferredResult.setErrorResult(serviceUnavailable("Request timed out. Please retry later."));
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode.name().toLowerCase(Locale.ROOT));
+        if (executor instanceof ThreadPoolExecutor pool) {
+            stats.put("poolSize", pool.getPoolSize());
+            stats.put("active", pool.getActiveCount());
+            stats.put("queued", pool.getQueue().size());
+        }
+        stats.put("submitted", submitted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("queueWait", queueWait.toMap());
+        return stats;
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ResponseEntity<ApiResponse> serviceUnavailable(String message) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error(message));
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() n'existe qu'à partir du JDK 21 (le projet compile en 17)
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newBoundedPool(int poolSize, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "handler-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
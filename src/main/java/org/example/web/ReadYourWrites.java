@@ -0,0 +1,93 @@
+package org.example.web;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.dto.ApiResponse;
+import org.example.persistence.RoutingContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Lecture de ses propres écritures malgré le retard des réplicas : une requête qui a écrit renvoie un
+ * cookie qui épingle les lectures du client au primaire pendant db.replicas.pin-after-write-ms.
+ *
+ * Le cookie suit le client d'une instance à l'autre ; un client qui ne conserve pas les cookies peut
+ * lire une version antérieure à sa propre écriture pendant au plus le retard toléré des réplicas.
+ */
+public class ReadYourWrites implements AsyncHandlerInterceptor {
+
+    static final String COOKIE_NAME = "primary_until";
+
+    private final boolean enabled;
+    private final long pinMillis;
+
+    public ReadYourWrites(boolean enabled, long pinMillis) {
+        this.enabled = enabled;
+        this.pinMillis = pinMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RoutingContext.open(enabled && isPinned(request));
+        return true;
+    }
+
+    // Le thread du conteneur est rendu : le contexte a été transmis au thread du handler (HandlerExecutor)
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        RoutingContext.close();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        RoutingContext.close();
+    }
+
+    /**
+     * Exécute le handler avec le contexte de la requête et ajoute le cookie si le handler a écrit.
+     */
+    ResponseEntity<ApiResponse> run(RoutingContext context, Supplier<ResponseEntity<ApiResponse>> handler) {
+        ResponseEntity<ApiResponse> response = RoutingContext.callWith(context, handler);
+        if (!enabled || context == null || !context.hasWritten()) {
+            return response;
+        }
+
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(System.currentTimeMillis() + pinMillis))
+                .path("/")
+                .maxAge(Duration.ofMillis(pinMillis).toSeconds() + 1)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .body(response.getBody());
+    }
+
+    // Valeur au-delà de la durée d'épinglage ignorée : un client ne peut pas s'épingler indéfiniment
+    private boolean isPinned(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long remaining = Long.parseLong(cookie.getValue()) - System.currentTimeMillis();
+                    return remaining > 0 && remaining <= pinMillis;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+-- Version des listes d'utilisateurs (ETag de GET /api/users, /role, /paginated, /search) : chaque
+-- transaction qui écrit des utilisateurs incrémente un slot avant son commit (UserStatsService), la
+-- version est la somme des slots. Remplace max(updated_at) + count(*), qui parcouraient la table.
+CREATE TABLE IF NOT EXISTS user_list_version (
+    slot    smallint PRIMARY KEY,
+    version bigint   NOT NULL DEFAULT 0
+);
+
+-- Ne servaient qu'à ces agrégats
+DROP INDEX IF EXISTS idx_users_active_updated_at;
+DROP INDEX IF EXISTS idx_users_updated_at;
+DROP INDEX IF EXISTS idx_users_role_updated_at;
@@ -0,0 +1,9 @@
+-- Index sans plan qui les utilise (bench/explain_indexes.sql) : chaque écriture les entretenait pour rien.
+
+-- Lectures actives triées sur id (findAllActive, streamAllActive, findActiveAfterId / BeforeId) :
+-- la clé primaire fournit le même ordre, deleted_at IS NULL y est un simple filtre (peu de lignes supprimées)
+DROP INDEX IF EXISTS idx_users_active_id;
+
+-- findResponsesByRole lit tous les utilisateurs d'un rôle parmi deux : le parcours séquentiel est le bon
+-- plan. Les pages par curseur triées sur le rôle utilisent idx_users_active_role_id.
+DROP INDEX IF EXISTS idx_users_role_id;
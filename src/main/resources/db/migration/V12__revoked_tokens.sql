@@ -0,0 +1,10 @@
+-- Jetons révoqués (POST /api/auth/logout), partagés entre les nœuds : chaque nœud recharge la liste
+-- périodiquement (TokenRevocationList). Une ligne n'est utile que jusqu'à l'expiration du jeton.
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    jti        varchar(36) PRIMARY KEY,
+    expires_at timestamp   NOT NULL
+);
+
+-- Purge des révocations expirées
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at
+    ON revoked_tokens (expires_at);
@@ -0,0 +1,7 @@
+-- Rechargement incrémental des révocations : chaque nœud ne relit que les lignes écrites depuis son
+-- dernier passage (horloge de la base, commune à tous les nœuds).
+ALTER TABLE revoked_tokens
+    ADD COLUMN IF NOT EXISTS revoked_at timestamp NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at
+    ON revoked_tokens (revoked_at);
@@ -0,0 +1,15 @@
+-- Schéma initial, identique à celui que générait hibernate.hbm2ddl.auto=update.
+-- Sur une base existante (sans historique Flyway), cette version sert de baseline et n'est pas rejouée.
+CREATE TABLE IF NOT EXISTS users (
+    id           bigint       NOT NULL,
+    nom          varchar(100) NOT NULL,
+    email        varchar(150) NOT NULL,
+    mot_de_passe varchar(255) NOT NULL,
+    role         varchar(20)  NOT NULL CHECK (role IN ('ADMIN', 'USER')),
+    actif        boolean      NOT NULL,
+    created_at   timestamp(6),
+    updated_at   timestamp(6),
+    deleted_at   timestamp(6),
+    CONSTRAINT users_pkey PRIMARY KEY (id),
+    CONSTRAINT users_email_key UNIQUE (email)
+);
@@ -0,0 +1,6 @@
+-- Identifiants générés par séquence (optimiseur "pooled", pas de 50) pour permettre le batch JDBC.
+-- Recale la séquence au-delà des ids déjà attribués par l'ancienne colonne IDENTITY.
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false)
+WHERE (SELECT last_value FROM users_seq) <= (SELECT COALESCE(MAX(id), 0) FROM users);
@@ -0,0 +1,10 @@
+-- Recherche par sous-chaîne (ILIKE '%x%') sur nom/email via index trigrammes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_users_nom_trgm
+    ON users USING gin (nom gin_trgm_ops)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+    ON users USING gin (email gin_trgm_ops)
+    WHERE deleted_at IS NULL;
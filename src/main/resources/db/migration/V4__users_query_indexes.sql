@@ -0,0 +1,29 @@
+-- Index alignés sur les requêtes de UserRepository / UserService.
+-- findByEmail / existsByEmail / findExistingEmails : contrainte unique users_email_key (V1).
+-- findActiveById : clé primaire.
+
+-- findAllActive, streamAllActive (ORDER BY id) et pagination par curseur triée sur id
+CREATE INDEX IF NOT EXISTS idx_users_active_id
+    ON users (id)
+    WHERE deleted_at IS NULL;
+
+-- findByRole (sans filtre sur deleted_at) ; "id" rend l'ordre de lecture stable
+CREATE INDEX IF NOT EXISTS idx_users_role_id
+    ON users (role, id);
+
+-- Pagination par curseur (findActiveWindow) : ORDER BY <clé>, id sur les utilisateurs actifs
+CREATE INDEX IF NOT EXISTS idx_users_active_nom_id
+    ON users (nom, id)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_active_email_id
+    ON users (email, id)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_active_role_id
+    ON users (role, id)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_active_created_at_id
+    ON users (created_at, id)
+    WHERE deleted_at IS NULL;
@@ -0,0 +1,11 @@
+-- ETag des listes : max(updated_at) + count(*) lus par parcours d'index seul
+-- (findActiveVersion, findAllVersion, findVersionByRole)
+CREATE INDEX IF NOT EXISTS idx_users_active_updated_at
+    ON users (updated_at)
+    WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_users_updated_at
+    ON users (updated_at);
+
+CREATE INDEX IF NOT EXISTS idx_users_role_updated_at
+    ON users (role, updated_at);
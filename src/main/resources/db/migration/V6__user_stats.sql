@@ -0,0 +1,20 @@
+-- Compteurs d'utilisateurs par rôle et état (UserStatsService), répartis sur plusieurs lignes ("slot")
+-- pour que les écritures concurrentes ne se disputent pas le même verrou de ligne.
+-- Les lignes d'un slot sont créées au premier incrément (INSERT ... ON CONFLICT).
+CREATE TABLE IF NOT EXISTS user_stats (
+    role       varchar(20) NOT NULL,
+    status     varchar(20) NOT NULL CHECK (status IN ('ACTIVE', 'INACTIVE', 'DELETED')),
+    slot       smallint    NOT NULL,
+    user_count bigint      NOT NULL DEFAULT 0,
+    CONSTRAINT user_stats_pkey PRIMARY KEY (role, status, slot)
+);
+
+-- Valeurs initiales dans le slot 0 ; la réconciliation périodique corrige tout écart ultérieur
+INSERT INTO user_stats (role, status, slot, user_count)
+SELECT role,
+       CASE WHEN deleted_at IS NOT NULL THEN 'DELETED' WHEN actif THEN 'ACTIVE' ELSE 'INACTIVE' END,
+       0,
+       count(*)
+FROM users
+GROUP BY 1, 2
+ON CONFLICT (role, status, slot) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Colonne de version pour le verrouillage optimiste (User.version).
+-- Valeur par défaut constante : ajout instantané (PostgreSQL 11+), sans réécriture de la table.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
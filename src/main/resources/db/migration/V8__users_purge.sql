@@ -0,0 +1,22 @@
+-- Purge des utilisateurs supprimés logiquement (UserRetentionService).
+-- Parcours par clé (deleted_at, id) limité aux lignes supprimées : chaque lot repart de la dernière clé
+-- traitée au lieu de re-parcourir les entrées mortes laissées par les lots précédents.
+CREATE INDEX IF NOT EXISTS idx_users_deleted_at_id
+    ON users (deleted_at, id)
+    WHERE deleted_at IS NOT NULL;
+
+-- Archive (user.purge.mode=archive) : mêmes colonnes sans le hash du mot de passe.
+-- Pas de contrainte d'unicité sur l'email : une adresse peut être réutilisée puis archivée à nouveau.
+CREATE TABLE IF NOT EXISTS users_archive (
+    id          bigint       NOT NULL,
+    nom         varchar(100) NOT NULL,
+    email       varchar(150) NOT NULL,
+    role        varchar(20)  NOT NULL,
+    actif       boolean      NOT NULL,
+    created_at  timestamp(6),
+    updated_at  timestamp(6),
+    deleted_at  timestamp(6) NOT NULL,
+    version     bigint       NOT NULL,
+    archived_at timestamp(6) NOT NULL DEFAULT now(),
+    CONSTRAINT users_archive_pkey PRIMARY KEY (id)
+);
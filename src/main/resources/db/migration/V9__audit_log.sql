@@ -0,0 +1,19 @@
+-- Journal d'audit (connexions, déconnexions, créations, modifications et suppressions d'utilisateurs).
+-- Alimenté par lots (AuditTrail) ; pas de clé étrangère vers users : l'historique survit à la purge.
+CREATE TABLE IF NOT EXISTS audit_log (
+    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    occurred_at timestamp    NOT NULL,
+    action      varchar(30)  NOT NULL,
+    actor_id    bigint,
+    target_id   bigint,
+    client_ip   varchar(45),
+    details     varchar(500)
+);
+
+-- Historique d'un utilisateur, du plus récent au plus ancien
+CREATE INDEX IF NOT EXISTS idx_audit_log_target_id
+    ON audit_log (target_id, id);
+
+-- Table en ajout seul, occurred_at croissant avec l'ordre physique : un index BRIN suffit aux plages de dates
+CREATE INDEX IF NOT EXISTS idx_audit_log_occurred_at
+    ON audit_log USING brin (occurred_at);
@@ -0,0 +1,101 @@
+package org.example.audit;
+
+import org.example.model.enums.AuditAction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(4, new AuditRingBuffer(3).capacity());
+        assertEquals(1024, new AuditRingBuffer(1024).capacity());
+        assertEquals(2048, new AuditRingBuffer(1025).capacity());
+    }
+
+    @Test
+    void offerFailsWhenFullAndDrainFreesSlots() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(event(0, i)));
+        }
+        assertFalse(buffer.offer(event(0, 4)));
+
+        List<AuditEvent> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals(0L, drained.get(0).targetId());
+        assertEquals(1L, drained.get(1).targetId());
+        assertTrue(buffer.offer(event(0, 4)));
+        assertEquals(3, buffer.size());
+    }
+
+    @Test
+    void severalProducersLoseNothingAndKeepTheirOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        AuditRingBuffer buffer = new AuditRingBuffer(256);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < perProducer; i++) {
+                    AuditEvent event = event(producer, i);
+                    while (!buffer.offer(event)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        List<AuditEvent> batch = new ArrayList<>();
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            buffer.drainTo(batch, 100);
+            for (AuditEvent event : batch) {
+                int producer = event.actorId().intValue();
+                assertEquals(next[producer], event.targetId(), "producer " + producer);
+                next[producer]++;
+            }
+            received += batch.size();
+            if (batch.isEmpty()) {
+                Thread.yield();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+
+        assertEquals(producers * perProducer, received);
+        assertEquals(0, buffer.size());
+    }
+
+    static AuditEvent event(long actorId, long targetId) {
+        return new AuditEvent(LocalDateTime.now(), AuditAction.USER_UPDATED, actorId, targetId, "127.0.0.1", null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
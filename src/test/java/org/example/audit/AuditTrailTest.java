@@ -0,0 +1,114 @@
+package org.example.audit;
+
+import org.example.model.enums.AuditAction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditTrailTest {
+
+    // Le thread d'écriture reste bloqué sur la connexion : il retient au plus flush-size (1) événement
+    private final CountDownLatch database = new CountDownLatch(1);
+    private final AbstractDataSource blockedDataSource = new AbstractDataSource() {
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                database.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SQLException("database unavailable");
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    };
+
+    private AuditTrail auditTrail;
+
+    @AfterEach
+    void shutdown() {
+        database.countDown();
+        if (auditTrail != null) {
+            auditTrail.shutdown();
+        }
+    }
+
+    @Test
+    void dropCountsEveryEventOnce() throws Exception {
+        auditTrail = new AuditTrail(blockedDataSource, true, 4, 1, 60_000, "drop", 0, 100);
+        awaitWriterBlocked();
+
+        for (int i = 0; i < 100; i++) {
+            auditTrail.record(AuditAction.USER_UPDATED, 1L, (long) i, "127.0.0.1", null);
+        }
+
+        Map<String, Object> stats = auditTrail.getStats();
+        long recorded = (long) stats.get("recorded");
+        long dropped = (long) stats.get("dropped");
+        assertEquals(101, recorded + dropped);
+        assertTrue(recorded <= 1 + 4, "recorded " + recorded);
+        assertEquals(0L, stats.get("blocked"));
+    }
+
+    @Test
+    void blockWaitsForTheTimeoutBeforeDropping() throws Exception {
+        auditTrail = new AuditTrail(blockedDataSource, true, 4, 1, 60_000, "block", 50, 100);
+        awaitWriterBlocked();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 8; i++) {
+            auditTrail.record(AuditAction.USER_UPDATED, 1L, (long) i, "127.0.0.1", null);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, Object> stats = auditTrail.getStats();
+        long dropped = (long) stats.get("dropped");
+        assertEquals(9, (long) stats.get("recorded") + dropped);
+        assertEquals(dropped, stats.get("blocked"));
+        assertTrue(dropped >= 4, "dropped " + dropped);
+        assertTrue(elapsedMs >= dropped * 50, "elapsed " + elapsedMs + " ms");
+    }
+
+    @Test
+    void eventRecordedAfterShutdownIsCountedAsDropped() {
+        auditTrail = new AuditTrail(blockedDataSource, true, 4, 1, 60_000, "drop", 0, 100);
+        auditTrail.shutdown();
+
+        auditTrail.record(AuditAction.LOGOUT, 1L, 1L, "127.0.0.1", null);
+
+        Map<String, Object> stats = auditTrail.getStats();
+        assertEquals(0L, stats.get("recorded"));
+        assertEquals(1L, stats.get("dropped"));
+    }
+
+    @Test
+    void disabledTrailRecordsNothing() {
+        auditTrail = new AuditTrail(blockedDataSource, false, 4, 1, 60_000, "drop", 0, 100);
+
+        auditTrail.record(AuditAction.LOGIN, 1L, 1L, "127.0.0.1", null);
+
+        assertEquals(0L, auditTrail.getStats().get("recorded"));
+        assertEquals(0L, auditTrail.getStats().get("dropped"));
+    }
+
+    // Un premier événement, pris par le thread d'écriture qui reste ensuite bloqué sur la connexion
+    private void awaitWriterBlocked() throws InterruptedException {
+        auditTrail.record(AuditAction.LOGIN, 1L, 1L, "127.0.0.1", null);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((int) auditTrail.getStats().get("queueDepth") > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpCachingTest {
+
+    private static final AuthenticationResolver ANONYMOUS = new AuthenticationResolver(null, false, false);
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 5, 10, 8, 0, 0, 500_000_000);
+
+    @Test
+    void ifMatchVersion() {
+        assertNull(HttpCaching.ifMatchVersion(ifMatch(null), 7L));
+        assertNull(HttpCaching.ifMatchVersion(ifMatch(" * "), 7L));
+        assertEquals(3L, HttpCaching.ifMatchVersion(ifMatch("\"7-3\""), 7L));
+        assertEquals(3L, HttpCaching.ifMatchVersion(ifMatch("W/\"7-3\""), 7L));
+        assertEquals(4L, HttpCaching.ifMatchVersion(ifMatch("\"8-1\", W/\"7-4\""), 7L));
+    }
+
+    @Test
+    void ifMatchForAnotherUserOrMalformedFailsThePrecondition() {
+        assertEquals(-1L, HttpCaching.ifMatchVersion(ifMatch("\"70-3\""), 7L));
+        assertEquals(-1L, HttpCaching.ifMatchVersion(ifMatch("\"7-\""), 7L));
+        assertEquals(-1L, HttpCaching.ifMatchVersion(ifMatch("\"7-abc\""), 7L));
+        assertEquals(-1L, HttpCaching.ifMatchVersion(ifMatch("7-3"), 7L));
+    }
+
+    @Test
+    void ifNoneMatchUsesWeakComparison() {
+        String etag = "\"7-3\"";
+
+        assertTrue(HttpCaching.isNotModified(ifNoneMatch(etag), etag, null));
+        assertTrue(HttpCaching.isNotModified(ifNoneMatch("W/" + etag), etag, null));
+        assertTrue(HttpCaching.isNotModified(ifNoneMatch("\"7-2\", W/\"7-3\""), etag, null));
+        assertTrue(HttpCaching.isNotModified(ifNoneMatch("*"), etag, null));
+        assertFalse(HttpCaching.isNotModified(ifNoneMatch("\"7-2\""), etag, null));
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverIfModifiedSince() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"7-2\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, epochMillis(UPDATED_AT) + 60_000);
+
+        assertFalse(HttpCaching.isNotModified(snapshot(request), "\"7-3\"", UPDATED_AT));
+    }
+
+    @Test
+    void ifModifiedSinceComparesWholeSeconds() {
+        long updated = epochMillis(UPDATED_AT);
+
+        assertTrue(HttpCaching.isNotModified(ifModifiedSince(updated - 500), "\"7-3\"", UPDATED_AT));
+        assertTrue(HttpCaching.isNotModified(ifModifiedSince(updated + 60_000), "\"7-3\"", UPDATED_AT));
+        assertFalse(HttpCaching.isNotModified(ifModifiedSince(updated - 1_500), "\"7-3\"", UPDATED_AT));
+        assertFalse(HttpCaching.isNotModified(ifModifiedSince(updated), "\"7-3\"", null));
+    }
+
+    @Test
+    void invalidIfModifiedSinceIsIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, "yesterday");
+
+        assertFalse(HttpCaching.isNotModified(snapshot(request), "\"7-3\"", UPDATED_AT));
+    }
+
+    @Test
+    void listETagDependsOnScopeVersionAndQuery() {
+        String etag = HttpCaching.listETag("all", 5, "page=0");
+
+        assertEquals(etag, HttpCaching.listETag("all", 5, "page=0"));
+        assertFalse(etag.equals(HttpCaching.listETag("all", 6, "page=0")));
+        assertFalse(etag.equals(HttpCaching.listETag("all", 5, "page=1")));
+        assertFalse(etag.equals(HttpCaching.listETag("active", 5, "page=0")));
+        assertEquals(HttpCaching.listETag("active", 5, null), HttpCaching.listETag("active", 5, ""));
+    }
+
+    private static RequestSnapshot ifMatch(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (value != null) {
+            request.addHeader(HttpHeaders.IF_MATCH, value);
+        }
+        return snapshot(request);
+    }
+
+    private static RequestSnapshot ifNoneMatch(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, value);
+        return snapshot(request);
+    }
+
+    private static RequestSnapshot ifModifiedSince(long epochMillis) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, epochMillis);
+        return snapshot(request);
+    }
+
+    private static RequestSnapshot snapshot(MockHttpServletRequest request) {
+        return RequestSnapshot.of(request, ANONYMOUS);
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
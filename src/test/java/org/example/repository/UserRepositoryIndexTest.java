@@ -0,0 +1,245 @@
+package org.example.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Plans des requêtes de UserRepository / TokenRevocationList sur le schéma des migrations db/migration
+// (version automatisée de bench/explain_indexes.sql). Ignoré sans Docker.
+// Le parcours séquentiel est désactivé : s'il apparaît quand même, aucun index ne sert la requête.
+@Testcontainers(disabledWithoutDocker = true)
+class UserRepositoryIndexTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // Même répartition que bench/explain_indexes.sql : 10 % d'ADMIN, 5 % de supprimés logiquement
+    private static final String FILL_USERS =
+            "INSERT INTO users (id, nom, email, mot_de_passe, role, actif, created_at, updated_at, deleted_at) " +
+            "SELECT g, 'user ' || md5(g::text), 'user' || g || '@example.com', 'x', " +
+            "CASE WHEN g % 10 = 0 THEN 'ADMIN' ELSE 'USER' END, true, " +
+            "now() - (g || ' seconds')::interval, now(), CASE WHEN g % 20 = 0 THEN now() END " +
+            "FROM generate_series(1, 200000) g";
+    private static final String FILL_REVOKED_TOKENS =
+            "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) " +
+            "SELECT md5(g::text), now() + ((g - 25000) || ' seconds')::interval, " +
+            "now() - (g || ' seconds')::interval " +
+            "FROM generate_series(1, 50000) g";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndFill() throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(FILL_USERS);
+            statement.execute(FILL_REVOKED_TOKENS);
+            statement.execute("ANALYZE users");
+            statement.execute("ANALYZE revoked_tokens");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    // [méthode, SQL émis, index attendus, lecture triée (aucun Sort toléré)]
+    static Stream<Arguments> indexedQueries() {
+        return Stream.of(
+                Arguments.of("findByEmail / existsByEmail",
+                        "SELECT * FROM users u WHERE u.email = 'user42@example.com'",
+                        List.of("users_email_key"), false),
+                Arguments.of("findExistingEmails",
+                        "SELECT u.email FROM users u WHERE u.email IN ('user1@example.com', 'user2@example.com')",
+                        List.of("users_email_key"), false),
+                Arguments.of("findActiveById / findActiveResponseById",
+                        "SELECT * FROM users u WHERE u.id = 42 AND u.deleted_at IS NULL",
+                        List.of("users_pkey"), false),
+                Arguments.of("findActiveResponseByEmail",
+                        "SELECT * FROM users u WHERE u.email = 'user42@example.com' AND u.deleted_at IS NULL",
+                        List.of("users_email_key"), false),
+                Arguments.of("findAllActive",
+                        "SELECT * FROM users u WHERE u.deleted_at IS NULL",
+                        List.of(), false),
+                Arguments.of("streamAllActiveResponses",
+                        "SELECT * FROM users u WHERE u.deleted_at IS NULL ORDER BY u.id",
+                        List.of("users_pkey"), true),
+                Arguments.of("findActiveResponses (page par id)",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "ORDER BY u.id OFFSET 40 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("users_pkey"), true),
+                Arguments.of("findActiveFirstPage (nom, id)",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "ORDER BY u.nom, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_nom_id"), true),
+                Arguments.of("findActiveAfterId",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND u.id > 1000 " +
+                        "ORDER BY u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("users_pkey"), true),
+                Arguments.of("findActiveBeforeId",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL AND u.id < 1000 " +
+                        "ORDER BY u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("users_pkey"), true),
+                Arguments.of("findActiveAfterNom",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.nom, u.id) > ('user 5', 1000) " +
+                        "ORDER BY u.nom, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_nom_id"), true),
+                Arguments.of("findActiveBeforeNom",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.nom, u.id) < ('user 5', 1000) " +
+                        "ORDER BY u.nom DESC, u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_nom_id"), true),
+                Arguments.of("findActiveAfterEmail",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.email, u.id) > ('user5', 1000) " +
+                        "ORDER BY u.email, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_email_id"), true),
+                Arguments.of("findActiveBeforeEmail",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.email, u.id) < ('user5', 1000) " +
+                        "ORDER BY u.email DESC, u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_email_id"), true),
+                Arguments.of("findActiveAfterCreatedAt",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.created_at, u.id) > (now() - interval '1 day', 1000) " +
+                        "ORDER BY u.created_at, u.id OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_created_at_id"), true),
+                Arguments.of("findActiveBeforeCreatedAt",
+                        "SELECT u.id, u.nom FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.created_at, u.id) < (now() - interval '1 day', 1000) " +
+                        "ORDER BY u.created_at DESC, u.id DESC OFFSET 0 ROWS FETCH FIRST 21 ROWS ONLY",
+                        List.of("idx_users_active_created_at_id"), true),
+                Arguments.of("findActiveIdsAfterRole",
+                        "SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.role, u.id) > ('ADMIN', 1000) " +
+                        "ORDER BY u.role ASC, u.id ASC LIMIT 21",
+                        List.of("idx_users_active_role_id"), true),
+                Arguments.of("findActiveIdsBeforeRole",
+                        "SELECT u.id FROM users u WHERE u.deleted_at IS NULL AND (u.role, u.id) < ('USER', 1000) " +
+                        "ORDER BY u.role DESC, u.id DESC LIMIT 21",
+                        List.of("idx_users_active_role_id"), true),
+                Arguments.of("deleteDeletedBatch",
+                        UserRepository.PURGE_BATCH
+                                .replace(":cutoff", "now()")
+                                .replace(":afterDeletedAt", "timestamp '1970-01-01'")
+                                .replace(":afterId", "0")
+                                .replace(":limit", "1000") +
+                        "DELETE FROM users u USING batch WHERE u.id = batch.id " +
+                        "RETURNING u.id, u.role, u.deleted_at",
+                        List.of("idx_users_deleted_at_id"), false),
+                Arguments.of("searchRanked",
+                        "SELECT u.id FROM users u WHERE u.deleted_at IS NULL " +
+                        "AND (u.nom ILIKE '%a1b2c%' OR u.email ILIKE '%a1b2c%')",
+                        List.of("idx_users_nom_trgm", "idx_users_email_trgm"), false),
+                Arguments.of("TokenRevocationList (chargement complet)",
+                        "SELECT jti, expires_at, revoked_at FROM revoked_tokens WHERE expires_at > now()",
+                        List.of("idx_revoked_tokens_expires_at"), false),
+                Arguments.of("TokenRevocationList (chargement incrémental)",
+                        "SELECT jti, expires_at, revoked_at FROM revoked_tokens " +
+                        "WHERE revoked_at > now() - interval '35 seconds'",
+                        List.of("idx_revoked_tokens_revoked_at"), false),
+                Arguments.of("TokenRevocationList (purge)",
+                        "WITH purge_lock AS (SELECT pg_try_advisory_xact_lock(1) AS acquired) " +
+                        "DELETE FROM revoked_tokens USING purge_lock WHERE purge_lock.acquired " +
+                        "AND expires_at < now()",
+                        List.of("idx_revoked_tokens_expires_at"), false));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource
+    void indexedQueries(String method, String sql, List<String> indexes, boolean ordered) throws Exception {
+        Plan plan = explain(sql, false);
+
+        assertFalse(plan.nodeTypes().contains("Seq Scan"), method + " : parcours séquentiel\n" + plan.json());
+        if (ordered) {
+            assertFalse(plan.nodeTypes().contains("Sort"), method + " : tri explicite\n" + plan.json());
+        }
+        for (String index : indexes) {
+            assertTrue(plan.indexNames().contains(index), method + " : " + index + " non utilisé\n" + plan.json());
+        }
+    }
+
+    // V11 : les requêtes qu'ils servaient passent par users_pkey / idx_users_active_role_id (contrôlés plus haut)
+    @Test
+    void redundantIndexesStayDropped() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT count(*) FROM pg_indexes WHERE tablename = 'users' " +
+                     "AND indexname IN ('idx_users_active_id', 'idx_users_role_id')")) {
+            rs.next();
+            assertEquals(0, rs.getLong(1));
+        }
+    }
+
+    // findResponsesByRole lit tous les utilisateurs d'un rôle parmi deux : sans index, le parcours séquentiel
+    // est le plan choisi avec les réglages par défaut (voir V11)
+    @Test
+    void findResponsesByRoleReadsTheTableSequentially() throws Exception {
+        Plan plan = explain("SELECT * FROM users u WHERE u.role = 'USER'", true);
+
+        assertTrue(plan.nodeTypes().contains("Seq Scan"), plan.json());
+    }
+
+    private static Plan explain(String sql, boolean seqScan) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = " + (seqScan ? "on" : "off"));
+            try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) " + sql)) {
+                rs.next();
+                String json = rs.getString(1);
+                List<String> nodeTypes = new ArrayList<>();
+                List<String> indexNames = new ArrayList<>();
+                collect(MAPPER.readTree(json), nodeTypes, indexNames);
+                return new Plan(json, nodeTypes, indexNames);
+            }
+        }
+    }
+
+    // Parcourt tout le plan, sous-plans des CTE compris
+    private static void collect(JsonNode node, List<String> nodeTypes, List<String> indexNames) {
+        if (node.has("Node Type")) {
+            nodeTypes.add(node.get("Node Type").asText());
+        }
+        if (node.has("Index Name")) {
+            indexNames.add(node.get("Index Name").asText());
+        }
+        for (JsonNode child : node) {
+            collect(child, nodeTypes, indexNames);
+        }
+    }
+
+    private record Plan(String json, List<String> nodeTypes, List<String> indexNames) {
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailBloomFilterTest {
+
+    private static final int INSERTIONS = 20_000;
+    private static final double TARGET_RATE = 0.01;
+
+    @Test
+    void neverGivesAFalseNegative() {
+        EmailBloomFilter.Bits bits = EmailBloomFilter.Bits.create(INSERTIONS, TARGET_RATE);
+        for (int i = 0; i < INSERTIONS; i++) {
+            bits.add("user" + i + "@example.com");
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertTrue(bits.mightContain("user" + i + "@example.com"), "user" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        EmailBloomFilter.Bits bits = EmailBloomFilter.Bits.create(INSERTIONS, TARGET_RATE);
+        for (int i = 0; i < INSERTIONS; i++) {
+            bits.add("user" + i + "@example.com");
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (bits.mightContain("other" + i + "@example.org")) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+
+        assertTrue(rate < TARGET_RATE * 1.5, "false positive rate " + rate);
+        assertTrue(bits.estimatedFalsePositiveRate() < TARGET_RATE * 1.5,
+                "estimated rate " + bits.estimatedFalsePositiveRate());
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import org.example.dto.CurrentUserDTO;
+import org.example.model.User;
+import org.example.model.enums.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenServiceTest {
+
+    private static final String KEY_1 = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String KEY_2 = "k2:" + Base64.getEncoder().encodeToString(new byte[]{
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+            17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+
+    // Base injoignable : les révocations restent locales au nœud, ce que vérifient ces tests
+    private final TokenRevocationList revocationList =
+            new TokenRevocationList(new DriverManagerDataSource("jdbc:unavailable:test"), true);
+
+    @Test
+    void issuedTokenVerifiesToTheSameUser() {
+        TokenService tokenService = tokenService(KEY_1, "", 3600, true);
+
+        CurrentUserDTO user = tokenService.verify(tokenService.issue(user()));
+
+        assertEquals(42L, user.getId());
+        assertEquals("alice@example.com", user.getEmail());
+        assertEquals("Alice.Martin", user.getNom());
+        assertEquals("ADMIN", user.getRole());
+        assertTrue(user.getActif());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        TokenService tokenService = tokenService(KEY_1, "", 3600, true);
+        String token = tokenService.issue(user());
+        String[] parts = token.split("\\.");
+        String forgedPayload = tokenService(KEY_2, "", 3600, true).issue(admin99()).split("\\.")[1];
+
+        assertInvalid(tokenService, parts[0] + "." + forgedPayload + "." + parts[2], "Invalid token");
+        assertInvalid(tokenService, parts[0] + "." + parts[1] + "." + parts[2].substring(1) + "A", "Invalid token");
+        assertInvalid(tokenService, parts[0] + "." + parts[1], "Invalid token");
+        assertInvalid(tokenService, "garbage", "Invalid token");
+        assertInvalid(tokenService, null, "Invalid token");
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        TokenService tokenService = tokenService(KEY_1, "", -10, true);
+
+        assertInvalid(tokenService, tokenService.issue(user()), "Token expired. Please login.");
+    }
+
+    @Test
+    void retiredKeyStillVerifiesUntilRemoved() {
+        TokenService before = tokenService(KEY_1 + "," + KEY_2, "k1", 3600, true);
+        TokenService rotated = tokenService(KEY_1 + "," + KEY_2, "k2", 3600, true);
+        TokenService retired = tokenService(KEY_2, "k2", 3600, true);
+        String oldToken = before.issue(user());
+        String newToken = rotated.issue(user());
+
+        assertTrue(newToken.startsWith("k2."));
+        assertEquals(42L, rotated.verify(oldToken).getId());
+        assertEquals(42L, before.verify(newToken).getId());
+        assertInvalid(retired, oldToken, "Invalid token");
+        assertEquals(42L, retired.verify(newToken).getId());
+    }
+
+    @Test
+    void unknownActiveKeyIsAConfigurationError() {
+        assertThrows(IllegalArgumentException.class, () -> tokenService(KEY_1, "k9", 3600, true));
+        assertThrows(IllegalArgumentException.class, () -> tokenService("k1", "", 3600, true));
+    }
+
+    @Test
+    void revokedTokenIsRejectedOthersAreNot() {
+        TokenService tokenService = tokenService(KEY_1, "", 3600, true);
+        String token = tokenService.issue(user());
+        String other = tokenService.issue(user());
+
+        tokenService.revoke(token);
+        tokenService.revoke(token);
+        tokenService.revoke("garbage");
+
+        assertInvalid(tokenService, token, "Token revoked. Please login.");
+        assertEquals(42L, tokenService.verify(other).getId());
+    }
+
+    @Test
+    void revocationCanBeDisabled() {
+        TokenService tokenService = tokenService(KEY_1, "", 3600, false);
+        String token = tokenService.issue(user());
+
+        tokenService.revoke(token);
+
+        assertEquals(42L, tokenService.verify(token).getId());
+    }
+
+    private TokenService tokenService(String keys, String activeKey, long ttlSeconds, boolean revocationEnabled) {
+        return new TokenService(keys, activeKey, ttlSeconds, revocationEnabled, revocationList);
+    }
+
+    private static void assertInvalid(TokenService tokenService, String token, String message) {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> tokenService.verify(token));
+        assertEquals(message, e.getMessage());
+    }
+
+    private static User user() {
+        User user = new User("Alice.Martin", "alice@example.com", "hash", Role.ADMIN);
+        user.setId(42L);
+        return user;
+    }
+
+    private static User admin99() {
+        User user = new User("Mallory", "mallory@example.com", "hash", Role.ADMIN);
+        user.setId(99L);
+        return user;
+    }
+}
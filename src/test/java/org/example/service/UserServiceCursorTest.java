@@ -0,0 +1,66 @@
+package org.example.service;
+
+import org.example.dto.UserResponseDTO;
+import org.example.model.enums.Role;
+import org.example.util.CursorCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserServiceCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+
+    private final UserResponseDTO last = new UserResponseDTO(42L, "Alice.Martin", "alice@example.com", Role.ADMIN,
+            true, CREATED_AT, CREATED_AT, 3L);
+
+    @Test
+    void roundTripForEverySortKey() {
+        assertRoundTrip("id", Sort.Direction.ASC, 42L);
+        assertRoundTrip("nom", Sort.Direction.DESC, "Alice.Martin");
+        assertRoundTrip("email", Sort.Direction.ASC, "alice@example.com");
+        assertRoundTrip("role", Sort.Direction.DESC, Role.ADMIN);
+        assertRoundTrip("createdAt", Sort.Direction.ASC, CREATED_AT);
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSort() {
+        String cursor = UserService.encodeCursor(last, "nom", Sort.Direction.ASC);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> UserService.decodeCursor(cursor, "email", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserService.decodeCursor(cursor, "nom", Sort.Direction.DESC));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        String badId = CursorCodec.encode(List.of("id", "ASC", "42", "x"));
+        String badKey = CursorCodec.encode(List.of("id", "ASC", "'; DROP TABLE users; --", "42"));
+        String badRole = CursorCodec.encode(List.of("role", "ASC", "ROOT", "42"));
+        String badDate = CursorCodec.encode(List.of("createdAt", "ASC", "yesterday", "42"));
+        String truncated = UserService.encodeCursor(last, "id", Sort.Direction.ASC).substring(3);
+
+        assertThrows(IllegalArgumentException.class, () -> UserService.decodeCursor(badId, "id", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class, () -> UserService.decodeCursor(badKey, "id", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserService.decodeCursor(badRole, "role", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserService.decodeCursor(badDate, "createdAt", Sort.Direction.ASC));
+        assertThrows(IllegalArgumentException.class,
+                () -> UserService.decodeCursor(truncated, "id", Sort.Direction.ASC));
+    }
+
+    private void assertRoundTrip(String sortBy, Sort.Direction direction, Object expectedKey) {
+        String cursor = UserService.encodeCursor(last, sortBy, direction);
+
+        assertArrayEquals(new Object[]{expectedKey, 42L}, UserService.decodeCursor(cursor, sortBy, direction), sortBy);
+        assertEquals(cursor, UserService.encodeCursor(last, sortBy, direction));
+    }
+}
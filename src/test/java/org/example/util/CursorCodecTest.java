@@ -0,0 +1,33 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorCodecTest {
+
+    @Test
+    void roundTripKeepsSeparatorsAndUnicode() {
+        List<String> values = List.of("nom", "a.b.c", "", "Élodie ✓", "42");
+
+        assertEquals(values, CursorCodec.decode(CursorCodec.encode(values), values.size()));
+    }
+
+    @Test
+    void rejectsWrongNumberOfValues() {
+        String cursor = CursorCodec.encode(List.of("id", "ASC", "10"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> CursorCodec.decode(cursor, 4));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("not base64 !", 4));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("", 4));
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionFilterTest {
+
+    private static final int THRESHOLD = 256;
+
+    private final CompressionFilter filter = new CompressionFilter(true, new DeflaterPool(2, 6, THRESHOLD),
+            List.of(MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN));
+
+    @Test
+    void bodyAtThresholdIsSentAsIs() throws Exception {
+        byte[] body = json(THRESHOLD);
+
+        MockHttpServletResponse response = filter(gzipRequest(), body, MediaType.APPLICATION_JSON_VALUE, "\"7-3\"");
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(THRESHOLD, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertEquals("\"7-3\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(1L, filter.getStats().toMap().get("skipped"));
+    }
+
+    @Test
+    void bodyOverThresholdIsGzippedWithAWeakETag() throws Exception {
+        byte[] body = json(THRESHOLD * 20);
+
+        MockHttpServletResponse response = filter(gzipRequest(), body, MediaType.APPLICATION_JSON_VALUE, "\"7-3\"");
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("W/\"7-3\"", response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsByteArray().length < body.length);
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void weakETagIsKept() throws Exception {
+        MockHttpServletResponse response = filter(gzipRequest(), json(THRESHOLD * 20),
+                MediaType.APPLICATION_JSON_VALUE, "W/\"7-3\"");
+
+        assertEquals("W/\"7-3\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void nonCompressibleTypeIsPassedThrough() throws Exception {
+        byte[] body = json(THRESHOLD * 20);
+
+        MockHttpServletResponse response = filter(gzipRequest(), body, MediaType.IMAGE_PNG_VALUE, "\"7-3\"");
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"7-3\"", response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    void clientWithoutGzipIsPassedThrough() throws Exception {
+        byte[] body = json(THRESHOLD * 20);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br");
+
+        MockHttpServletResponse response = filter(request, body, MediaType.APPLICATION_JSON_VALUE, "\"7-3\"");
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, response.getContentAsByteArray());
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    void acceptEncoding() {
+        assertTrue(CompressionFilter.acceptsGzip(acceptEncoding("gzip, deflate")));
+        assertTrue(CompressionFilter.acceptsGzip(acceptEncoding("br;q=1.0, *;q=0.5")));
+        assertFalse(CompressionFilter.acceptsGzip(acceptEncoding("gzip;q=0")));
+        assertFalse(CompressionFilter.acceptsGzip(acceptEncoding("gzip;q=abc")));
+        assertFalse(CompressionFilter.acceptsGzip(acceptEncoding("identity")));
+        assertFalse(CompressionFilter.acceptsGzip(new MockHttpServletRequest()));
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, byte[] body, String contentType,
+                                           String etag) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(contentType);
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, etag);
+            res.setContentLength(body.length);
+            // Écritures en plusieurs morceaux, comme un sérialiseur
+            int half = body.length / 2;
+            res.getOutputStream().write(body, 0, half);
+            res.getOutputStream().write(body, half, body.length - half);
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        return acceptEncoding("gzip, deflate");
+    }
+
+    private static MockHttpServletRequest acceptEncoding(String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, value);
+        return request;
+    }
+
+    private static byte[] json(int length) {
+        StringBuilder json = new StringBuilder("[");
+        while (json.length() < length - 1) {
+            json.append('0');
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
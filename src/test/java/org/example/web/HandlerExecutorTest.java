@@ -0,0 +1,128 @@
+package org.example.web;
+
+import org.example.dto.ApiResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class HandlerExecutorTest {
+
+    private HandlerExecutor handlerExecutor;
+
+    @AfterEach
+    void shutdown() {
+        if (handlerExecutor != null) {
+            handlerExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void poolModeCompletesOnHandlerThreadWithRequestStateReadBeforeSubmit() throws Exception {
+        MockMvc mockMvc = mockMvc("pool", 2, 10);
+
+        MvcResult result = mockMvc.perform(get("/probe").with(r -> {
+                    r.setRemoteAddr("10.0.0.7");
+                    return r;
+                }))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("{\"data\":\"10.0.0.7 handler-1\",\"status\":\"success\"}", body);
+        assertEquals(1L, handlerExecutor.getStats().get("submitted"));
+    }
+
+    @Test
+    void syncModeRunsOnRequestThread() throws Exception {
+        MockMvc mockMvc = mockMvc("sync", 2, 10);
+
+        MvcResult result = mockMvc.perform(get("/probe")).andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("{\"data\":\"127.0.0.1 " + Thread.currentThread().getName() + "\",\"status\":\"success\"}",
+                body);
+        assertEquals(0L, handlerExecutor.getStats().get("submitted"));
+    }
+
+    @Test
+    void virtualModeWithoutVirtualThreadsFallsBackToSync() {
+        handlerExecutor = new HandlerExecutor("virtual", 2, 10, new ReadYourWrites(false, 0));
+
+        String expected = Runtime.version().feature() >= 21 ? "virtual" : "sync";
+        assertEquals(expected, handlerExecutor.getStats().get("mode"));
+    }
+
+    @Test
+    void fullQueueAnswers503WithoutWaiting() throws Exception {
+        handlerExecutor = new HandlerExecutor("pool", 1, 1, new ReadYourWrites(false, 0));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<ApiResponse>> running = handlerExecutor.submit(() -> {
+            await(release);
+            return ResponseEntity.ok(ApiResponse.success("done"));
+        });
+        CompletableFuture<ResponseEntity<ApiResponse>> queued = handlerExecutor.submit(
+                () -> ResponseEntity.ok(ApiResponse.success("done")));
+
+        CompletableFuture<ResponseEntity<ApiResponse>> rejected = handlerExecutor.submit(
+                () -> ResponseEntity.ok(ApiResponse.success("done")));
+
+        assertTrue(rejected.isDone());
+        assertEquals(503, rejected.get().getStatusCode().value());
+        assertEquals("1", rejected.get().getHeaders().getFirst("Retry-After"));
+        release.countDown();
+        assertEquals(200, running.get(5, TimeUnit.SECONDS).getStatusCode().value());
+        assertEquals(200, queued.get(5, TimeUnit.SECONDS).getStatusCode().value());
+    }
+
+    private MockMvc mockMvc(String mode, int poolSize, int queueCapacity) {
+        handlerExecutor = new HandlerExecutor(mode, poolSize, queueCapacity, new ReadYourWrites(false, 0));
+        return MockMvcBuilders.standaloneSetup(new ProbeController(handlerExecutor)).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Même forme que les contrôleurs : la requête est lue avant submit, jamais dans le handler
+    @RestController
+    static class ProbeController {
+
+        private final HandlerExecutor handlerExecutor;
+
+        ProbeController(HandlerExecutor handlerExecutor) {
+            this.handlerExecutor = handlerExecutor;
+        }
+
+        @GetMapping("/probe")
+        CompletableFuture<ResponseEntity<ApiResponse>> probe(HttpServletRequest request) {
+            String remoteAddr = request.getRemoteAddr();
+            return handlerExecutor.submit(() -> ResponseEntity.ok(
+                    new ApiResponse.Data<>(remoteAddr + " " + Thread.currentThread().getName())));
+        }
+    }
+}